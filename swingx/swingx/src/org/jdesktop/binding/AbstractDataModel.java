@@ -23,6 +23,13 @@ package org.jdesktop.binding;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.jdesktop.binding.metadata.MetaData;
 import org.jdesktop.binding.metadata.Validator;
@@ -39,8 +46,21 @@ import org.jdesktop.binding.metadata.Validator;
 public abstract class AbstractDataModel implements DataModel {
 
     protected ArrayList validators;
-    private ArrayList valueChangeListeners;
+    /** listeners for all fields. */
+    private List<Registration> valueChangeListeners;
     private HashMap valueChangeEvents;
+    /** listeners interested in a single field, by field name. */
+    private Map<String, List<Registration>> fieldListeners;
+    /** the order of the next registered listener. */
+    private long nextOrder;
+    /** nesting depth of beginUpdate. */
+    private int updateDepth;
+    /** the fields changed while updating, in order of change. */
+    private Set<String> pendingChanges;
+    /** true while endUpdate notifies the changed fields. */
+    private boolean firingUpdate;
+    private int lastUpdateCount;
+    private ArrayList<ChangeListener> updateListeners;
 
     public abstract String[] getFieldNames();
 
@@ -89,33 +109,196 @@ public abstract class AbstractDataModel implements DataModel {
 
     public void addValueChangeListener(ValueChangeListener l) {
         if (valueChangeListeners == null) {
-            valueChangeListeners = new ArrayList();
+            valueChangeListeners = new ArrayList<Registration>();
         }
-        valueChangeListeners.add(l);
+        valueChangeListeners.add(new Registration(l, nextOrder++));
     }
 
     public void removeValueChangeListener(ValueChangeListener l) {
         if (valueChangeListeners != null){
-            valueChangeListeners.remove(l);
+            remove(valueChangeListeners, l);
+        }
+    }
+
+    /**
+     * Adds a listener which is notified about changes of the given
+     * field only. This is cheaper than a listener which filters 
+     * the events for all fields itself, when many fields are bound. 
+     * Listeners for a field and for all fields are notified in the 
+     * order they were added.
+     * 
+     * @param fieldName the name of the field to listen to
+     * @param l the listener
+     */
+    public void addValueChangeListener(String fieldName, ValueChangeListener l) {
+        if (fieldListeners == null) {
+            fieldListeners = new HashMap<String, List<Registration>>();
+        }
+        List<Registration> listeners = fieldListeners.get(fieldName);
+        if (listeners == null) {
+            listeners = new ArrayList<Registration>(1);
+            fieldListeners.put(fieldName, listeners);
+        }
+        listeners.add(new Registration(l, nextOrder++));
+    }
+
+    public void removeValueChangeListener(String fieldName, ValueChangeListener l) {
+        if (fieldListeners == null) return;
+        List<Registration> listeners = fieldListeners.get(fieldName);
+        if (listeners != null) {
+            remove(listeners, l);
+        }
+    }
+
+    private void remove(List<Registration> registrations, ValueChangeListener l) {
+        for (int i = 0; i < registrations.size(); i++) {
+            if (registrations.get(i).listener == l) {
+                registrations.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts a batch of changes, f.i. switching to another record. Until 
+     * the matching endUpdate, value change notifications are held back.
+     * Calls may be nested. 
+     */
+    public void beginUpdate() {
+        updateDepth++;
+    }
+
+    /**
+     * Ends a batch of changes started with beginUpdate. The outermost 
+     * call notifies the value change listeners once for every field changed 
+     * during the batch, then the update listeners once.
+     * 
+     * @return the number of fields changed during the batch, 
+     *   0 for a nested call.
+     */
+    public int endUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("endUpdate without beginUpdate");
+        }
+        if (--updateDepth > 0) return 0;
+        String[] changed = pendingChanges == null ? new String[0] 
+                : pendingChanges.toArray(new String[pendingChanges.size()]);
+        pendingChanges = null;
+        lastUpdateCount = changed.length;
+        firingUpdate = true;
+        try {
+            for (int i = 0; i < changed.length; i++) {
+                fireValueChanged(changed[i]);
+            }
+        } finally {
+            firingUpdate = false;
+        }
+        fireUpdateFinished();
+        return changed.length;
+    }
+
+    /**
+     * @return true if inside a beginUpdate/endUpdate batch.
+     */
+    public boolean isUpdating() {
+        return updateDepth > 0;
+    }
+
+    /**
+     * Returns true while endUpdate notifies the fields changed during the
+     * batch. Listeners can defer expensive work, like validation, until 
+     * the update listeners are notified.
+     * 
+     * @return true if the current value change notification is part of
+     *   a batch.
+     */
+    public boolean isFiringUpdate() {
+        return firingUpdate;
+    }
+
+    /**
+     * @return the number of fields notified by the last batch, f.i. for
+     *   the last record switch.
+     */
+    public int getLastUpdateCount() {
+        return lastUpdateCount;
+    }
+
+    /**
+     * Adds a listener which is notified after endUpdate notified all 
+     * fields changed during a batch.
+     * 
+     * @param l the listener
+     */
+    public void addUpdateListener(ChangeListener l) {
+        if (updateListeners == null) {
+            updateListeners = new ArrayList<ChangeListener>();
+        }
+        updateListeners.add(l);
+    }
+
+    public void removeUpdateListener(ChangeListener l) {
+        if (updateListeners != null) {
+            updateListeners.remove(l);
+        }
+    }
+
+    protected void fireUpdateFinished() {
+        if (updateListeners == null) return;
+        ChangeEvent e = new ChangeEvent(this);
+        for (int i = 0; i < updateListeners.size(); i++) {
+            updateListeners.get(i).stateChanged(e);
         }
     }
 
     public ValueChangeListener[] getValueChangeListeners() {
         if (valueChangeListeners != null) {
-            return (ValueChangeListener[])valueChangeListeners.toArray(new ValueChangeListener[1]);
+            ValueChangeListener[] listeners = 
+                new ValueChangeListener[Math.max(1, valueChangeListeners.size())];
+            for (int i = 0; i < valueChangeListeners.size(); i++) {
+                listeners[i] = valueChangeListeners.get(i).listener;
+            }
+            return listeners;
         }
         return new ValueChangeListener[0];
     }
 
     protected void fireValueChanged(String fieldName) {
-        ValueChangeListener[] formListeners = getValueChangeListeners();
+        if (isUpdating()) {
+            if (pendingChanges == null) {
+                pendingChanges = new LinkedHashSet<String>();
+            }
+            pendingChanges.add(fieldName);
+            return;
+        }
         ValueChangeEvent e = getCachedEvent(fieldName);
-        if (valueChangeListeners != null) {
-            for (int i = 0; i < valueChangeListeners.size(); i++) {
-                ValueChangeListener vcl = (ValueChangeListener)
-                    valueChangeListeners.get(i);
-                vcl.valueChanged(e);
+        List<Registration> field = fieldListeners != null 
+                ? fieldListeners.get(fieldName) : null;
+        List<Registration> all = valueChangeListeners;
+        int fieldCount = field != null ? field.size() : 0;
+        int allCount = all != null ? all.size() : 0;
+        // merge both lists by order of registration
+        int i = 0;
+        int j = 0;
+        while ((i < fieldCount) || (j < allCount)) {
+            Registration next;
+            if ((j >= allCount) || ((i < fieldCount) 
+                    && (field.get(i).order < all.get(j).order))) {
+                next = field.get(i++);
+            } else {
+                next = all.get(j++);
             }
+            next.listener.valueChanged(e);
+        }
+    }
+
+    private static class Registration {
+        final ValueChangeListener listener;
+        final long order;
+
+        Registration(ValueChangeListener listener, long order) {
+            this.listener = listener;
+            this.order = order;
         }
     }
 
@@ -27,9 +27,11 @@ import java.beans.Introspector;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.jdesktop.binding.metadata.MetaData;
 import org.jdesktop.binding.metadata.NumberMetaData;
@@ -51,11 +53,22 @@ import org.jdesktop.binding.metadata.NumberMetaData;
 public class JavaBeanDataModel extends DefaultDataModel {
 
     private BeanInfo info;
+    // the cached accessors, shared by all models of the beanClass
+    private BeanAccessors accessors;
     // needed for error checking in setJavaBean
     private Class beanClass;
     private Object bean; // current bean instance
 
     private static final Map<Class, Class> primitivesToBoxed = new HashMap<Class,Class>();
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /** 
+     * The accessors per bean class. The values are soft, so the classes
+     * referenced by the Methods don't stay in memory.
+     */
+    private static final Map<Class, SoftReference<BeanAccessors>> accessorsCache = 
+        new WeakHashMap<Class, SoftReference<BeanAccessors>>();
     
     // temporarily public for testing!
     public PropertyChangeListener propertyChangeListener;
@@ -95,7 +108,8 @@ public class JavaBeanDataModel extends DefaultDataModel {
         
     }
     private void createDefaultMetaData(Class beanClass, MetaData[] metaData) throws IntrospectionException {
-        info = Introspector.getBeanInfo(beanClass);
+        accessors = getAccessors(beanClass);
+        info = accessors.info;
         boolean bound = false;
         if (metaData == null) {
             PropertyDescriptor[] props = info.getPropertyDescriptors();
@@ -153,16 +167,10 @@ public class JavaBeanDataModel extends DefaultDataModel {
 
     private void initPropertyChangeListener() {
         if (propertyChangeListener != null) return;
-        try {
-            beanClass.getMethod("addPropertyChangeListener", 
-                    new Class[] { PropertyChangeListener.class });
-            beanClass.getMethod("removePropertyChangeListener", 
-                    new Class[] { PropertyChangeListener.class });
-        } catch (Exception e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+        if ((accessors.addListenerMethod == null) 
+                || (accessors.removeListenerMethod == null)) {
             return;
-        } 
+        }
         propertyChangeListener = new PropertyChangeListener() {
 
             public void propertyChange(PropertyChangeEvent evt) {
@@ -199,8 +207,13 @@ public class JavaBeanDataModel extends DefaultDataModel {
         if (bean != oldBean) {
             // Should update all the values
             String[] fieldNames = getFieldNames();
-            for (int i = 0; i < fieldNames.length; i++) {
-                fireValueChanged(fieldNames[i]);
+            beginUpdate();
+            try {
+                for (int i = 0; i < fieldNames.length; i++) {
+                    fireValueChanged(fieldNames[i]);
+                }
+            } finally {
+                endUpdate();
             }
         }
         addPropertyChangeListener(bean);
@@ -209,9 +222,7 @@ public class JavaBeanDataModel extends DefaultDataModel {
     private void addPropertyChangeListener(Object bean) {
         if ((propertyChangeListener == null) || (bean == null)) return;
         try {
-            Method adder = beanClass.getMethod("addPropertyChangeListener", 
-                    new Class[] { PropertyChangeListener.class });
-            adder.invoke(bean, new Object[] { propertyChangeListener });
+            accessors.addListenerMethod.invoke(bean, new Object[] { propertyChangeListener });
        } catch (Exception e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
@@ -222,9 +233,7 @@ public class JavaBeanDataModel extends DefaultDataModel {
     private void removePropertyChangeListener(Object bean) {
         if ((propertyChangeListener == null) || (bean == null)) return;
         try {
-            Method adder = beanClass.getMethod("removePropertyChangeListener", 
-                    new Class[] { PropertyChangeListener.class });
-            adder.invoke(bean, new Object[] { propertyChangeListener });
+            accessors.removeListenerMethod.invoke(bean, new Object[] { propertyChangeListener });
        } catch (Exception e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
@@ -242,11 +251,10 @@ public class JavaBeanDataModel extends DefaultDataModel {
         if (getJavaBean() == null) {
             return null;
         }
-        PropertyDescriptor prop = getPropertyDescriptor(fieldName);
-        Method readMethod = prop.getReadMethod();
+        Method readMethod = accessors.getReadMethod(fieldName);
         if (readMethod != null) {
             try {
-                return readMethod.invoke(getJavaBean(), new Object[0]);
+                return readMethod.invoke(getJavaBean(), NO_ARGS);
             }
             catch (Exception ex) {
                 // XXX excecption for illegal access, etc..
@@ -261,8 +269,7 @@ public class JavaBeanDataModel extends DefaultDataModel {
         if (getJavaBean() == null) {
             return;
         }
-        PropertyDescriptor prop = getPropertyDescriptor(fieldName);
-        Method writeMethod = prop.getWriteMethod();
+        Method writeMethod = accessors.getWriteMethod(fieldName);
         if (writeMethod != null) {
             try {
                 writeMethod.invoke(getJavaBean(), new Object[] {value});
@@ -274,15 +281,158 @@ public class JavaBeanDataModel extends DefaultDataModel {
         }
     }
 
+    /**
+     * @param fieldName the name of the property
+     * @return a new Method object for the getter of the property, with 
+     *   the usual access checks, or null if there is none.
+     */
+    public Method getReadMethod(String fieldName) {
+        return checked(accessors.getReadMethod(fieldName));
+    }
+
+    /**
+     * @param fieldName the name of the property
+     * @return a new Method object for the setter of the property, with 
+     *   the usual access checks, or null if there is none.
+     */
+    public Method getWriteMethod(String fieldName) {
+        return checked(accessors.getWriteMethod(fieldName));
+    }
+
+    /**
+     * @return a new Method object for the bean's addPropertyChangeListener 
+     *   method or null if the bean doesn't support bound properties.
+     */
+    public Method getAddListenerMethod() {
+        return checked(accessors.addListenerMethod);
+    }
+
+    /**
+     * @return a new Method object for the bean's removePropertyChangeListener
+     *   method or null if the bean doesn't support bound properties.
+     */
+    public Method getRemoveListenerMethod() {
+        return checked(accessors.removeListenerMethod);
+    }
+
+    /**
+     * The cached methods may suppress the access checks, they must 
+     * not leak.
+     * 
+     * @return a copy of the method with access checks. 
+     */
+    private static Method checked(Method method) {
+        if (method == null) return null;
+        try {
+            return BeanAccessors.copy(method);
+        } catch (Exception e) {
+            // not copied in BeanAccessors either, so it is unchanged
+            return method;
+        }
+    }
+
     private PropertyDescriptor getPropertyDescriptor(String name) {
-        PropertyDescriptor pd = null;
-        PropertyDescriptor[] desc = info.getPropertyDescriptors();
-        for (int i = 0; i < desc.length; i++) {
-            if (name.equals(desc[i].getName())) {
-                pd = desc[i];
-                break;
+        return accessors.getPropertyDescriptor(name);
+    }
+
+    /**
+     * Returns the accessors for the given bean class, introspecting
+     * the class on first access only.
+     */
+    private static BeanAccessors getAccessors(Class beanClass) throws IntrospectionException {
+        synchronized (accessorsCache) {
+            SoftReference<BeanAccessors> ref = accessorsCache.get(beanClass);
+            BeanAccessors accessors = ref != null ? ref.get() : null;
+            if (accessors == null) {
+                accessors = new BeanAccessors(beanClass);
+                accessorsCache.put(beanClass, new SoftReference<BeanAccessors>(accessors));
+            }
+            return accessors;
+        }
+    }
+
+    /**
+     * The introspected properties of a bean class: the property
+     * descriptors with their read/write methods by index, and a 
+     * name to index map. Immutable after construction.
+     */
+    private static class BeanAccessors {
+        final BeanInfo info;
+        final Map<String, Integer> indices;
+        final PropertyDescriptor[] descriptors;
+        final Method[] readMethods;
+        final Method[] writeMethods;
+        final Method addListenerMethod;
+        final Method removeListenerMethod;
+        
+        BeanAccessors(Class beanClass) throws IntrospectionException {
+            info = Introspector.getBeanInfo(beanClass);
+            descriptors = info.getPropertyDescriptors();
+            indices = new HashMap<String, Integer>();
+            readMethods = new Method[descriptors.length];
+            writeMethods = new Method[descriptors.length];
+            for (int i = 0; i < descriptors.length; i++) {
+                // first one wins, as with the linear search
+                if (!indices.containsKey(descriptors[i].getName())) {
+                    indices.put(descriptors[i].getName(), i);
+                }
+                readMethods[i] = accessible(descriptors[i].getReadMethod());
+                writeMethods[i] = accessible(descriptors[i].getWriteMethod());
             }
+            addListenerMethod = accessible(getListenerMethod(beanClass, "addPropertyChangeListener"));
+            removeListenerMethod = accessible(getListenerMethod(beanClass, "removePropertyChangeListener"));
+        }
+
+        PropertyDescriptor getPropertyDescriptor(String name) {
+            Integer index = indices.get(name);
+            return index != null ? descriptors[index] : null;
+        }
+
+        Method getReadMethod(String name) {
+            Integer index = indices.get(name);
+            return index != null ? readMethods[index] : null;
+        }
+
+        Method getWriteMethod(String name) {
+            Integer index = indices.get(name);
+            return index != null ? writeMethods[index] : null;
+        }
+        
+        private static Method getListenerMethod(Class beanClass, String name) {
+            try {
+                return beanClass.getMethod(name, 
+                        new Class[] { PropertyChangeListener.class });
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns a private copy of the method which suppresses the access 
+         * checks on every invoke, if allowed. The methods of the 
+         * PropertyDescriptors are shared by all users of the BeanInfo, 
+         * they must not be changed. 
+         * Newer VMs refuse with other RuntimeExceptions than 
+         * SecurityException for classes in non-open modules.
+         */
+        private static Method accessible(Method method) {
+            if (method == null) return null;
+            try {
+                Method copy = copy(method);
+                copy.setAccessible(true);
+                return copy;
+            } catch (Exception e) {
+                // keep the checks
+            }
+            return method;
+        }
+
+        /**
+         * @return a new Method object for the same method.
+         */
+        private static Method copy(Method method) throws NoSuchMethodException {
+            return method.getDeclaringClass().getMethod(method.getName(), 
+                    method.getParameterTypes());
         }
-        return pd;
     }
 }
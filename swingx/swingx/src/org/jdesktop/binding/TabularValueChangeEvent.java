@@ -23,18 +23,31 @@ package org.jdesktop.binding;
 import java.util.EventObject;
 
 /**
- * Event fired by TabularDataModel on cell updates.
- * 
- * PENDING: how to handle adding/removing rows?
+ * Event fired by TabularDataModel on cell updates and on rows
+ * inserted or deleted. Modelled after 
+ * {@link javax.swing.event.TableModelEvent}: the event covers
+ * the rows from rowIndex to lastRowIndex (inclusive), the type tells 
+ * whether those rows are updated, inserted or deleted.
  * 
  * @author Jeanette Winzenburg
  * 
  */
 public class TabularValueChangeEvent extends EventObject {
     
+    /** Identifies rows which are inserted. */
+    public static final int INSERT = 1;
+    /** Identifies a change to existing data. */
+    public static final int UPDATE = 0;
+    /** Identifies rows which are deleted. */
+    public static final int DELETE = -1;
 
+    /** lastRowIndex marker for "all rows from rowIndex to the end". */
+    public static final int ALL_ROWS = Integer.MAX_VALUE;
+    
     private int rowIndex;
+    private int lastRowIndex;
     private String fieldName;
+    private int type;
 
     /**
      * Instantiates a change event for the cell given in 
@@ -45,9 +58,27 @@ public class TabularValueChangeEvent extends EventObject {
      * @param fieldName the field which is updated. null indicates all fields.
      */
     public TabularValueChangeEvent(TabularDataModel source, int rowIndex, String fieldName) {
+        this(source, rowIndex, rowIndex, fieldName, UPDATE);
+    }
+
+    /**
+     * Instantiates a change event for the rows from rowIndex to lastRowIndex.
+     * 
+     * @param source
+     * @param rowIndex the first row which is changed. -1 indicates all rows.
+     * @param lastRowIndex the last row which is changed, ALL_ROWS indicates
+     *   all rows from rowIndex to the end.
+     * @param fieldName the field which is updated. null indicates all fields.
+     *   Must be null for INSERT and DELETE.
+     * @param type the type of the change, one of INSERT, UPDATE, DELETE.
+     */
+    public TabularValueChangeEvent(TabularDataModel source, int rowIndex, 
+            int lastRowIndex, String fieldName, int type) {
         super(source);
         this.rowIndex = rowIndex;
+        this.lastRowIndex = lastRowIndex;
         this.fieldName = fieldName;
+        this.type = type;
     }
 
     /** the column coordinate.
@@ -60,9 +91,26 @@ public class TabularValueChangeEvent extends EventObject {
     
     /**
      * 
-     * @return the rowIndex which is updated. -1 indicates all columns.
+     * @return the (first) rowIndex which is changed. -1 indicates all rows.
      */
     public int getRowIndex() {
         return rowIndex;
     }
+
+    /**
+     * 
+     * @return the last rowIndex which is changed. ALL_ROWS indicates all
+     *   rows from getRowIndex() to the end. 
+     */
+    public int getLastRowIndex() {
+        return lastRowIndex;
+    }
+
+    /**
+     * 
+     * @return the type of the change, one of INSERT, UPDATE, DELETE.
+     */
+    public int getType() {
+        return type;
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * $Id$
+ *
+ * Copyright 2005 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.jdesktop.binding.metadata;
+
+/**
+ * Marker for Validators which are too expensive to run on the 
+ * event dispatch thread, f.i. because they query a database for 
+ * uniqueness. Bindings run them on a background thread after all 
+ * synchronous checks passed, so implementations must be thread safe 
+ * and must not touch Swing components.
+ *
+ * @author Jeanette Winzenburg
+ */
+public interface AsyncValidator extends Validator {
+
+}
@@ -24,9 +24,9 @@ package org.jdesktop.binding.metadata;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class containing the static converter registry and a set of static Converter
@@ -57,24 +57,30 @@ import java.util.Set;
  * <pre><code>    Converters.put(Foo.class, new FooConverter());
  * </code></pre>
  * </p>
+ * <p>
+ * The registry is safe to use from any thread, and so are the
+ * built-in converters. Converters put into the registry should be 
+ * thread-safe as well.
+ * </p>
  *
  * @author Amy Fowler
  * @version 1.0
  */
 public class Converters {
-    private static Map map;
+    private static Map<Class, Converter> map;
 
     static {
-        map = new HashMap();
-        map.put(Boolean.class, "org.jdesktop.binding.metadata.Converters$BooleanConverter");
-        map.put(Date.class, "org.jdesktop.binding.metadata.Converters$DateConverter");
-        map.put(Double.class, "org.jdesktop.binding.metadata.Converters$DoubleConverter");
-        map.put(Float.class, "org.jdesktop.binding.metadata.Converters$FloatConverter");
-        map.put(Integer.class, "org.jdesktop.binding.metadata.Converters$IntegerConverter");
+        // the built-in converters are cheap to create, no need to defer
+        map = new ConcurrentHashMap<Class, Converter>();
+        map.put(Boolean.class, new BooleanConverter());
+        map.put(Date.class, new DateConverter());
+        map.put(Double.class, new DoubleConverter());
+        map.put(Float.class, new FloatConverter());
+        map.put(Integer.class, new IntegerConverter());
 //        map.put(LinkModel.class, "org.jdesktop.binding.Converters$LinkConverter");
-        map.put(Long.class, "org.jdesktop.binding.metadata.Converters$LongConverter");
-        map.put(Short.class, "org.jdesktop.binding.metadata.Converters$ShortConverter");
-        map.put(String.class, "org.jdesktop.binding.metadata.Converters$StringConverter");
+        map.put(Long.class, new LongConverter());
+        map.put(Short.class, new ShortConverter());
+        map.put(String.class, new StringConverter());
     }
 
     /**
@@ -85,22 +91,132 @@ public class Converters {
      *         no converter is currently registered for that class
      */
     public static Converter get(Class klass) {
-	Object obj = map.get(klass);
-	Converter converter = null;
-	if (obj != null) {
-	    if (obj instanceof String) {
-		try {
-		    Class cls = Class.forName((String)obj);
-		    converter = (Converter)cls.newInstance();
-		    map.put(klass, converter);
-		} catch (Exception ex) {
-		    converter = null;
-		}
-	    } else {
-		converter = (Converter)obj;
-	    }
-	}
-        return converter;
+        return klass != null ? map.get(klass) : null;
+    }
+
+    /**
+     * Decodes the value with the given converter, returning the fallback 
+     * instead of throwing if the value cannot be decoded. <p>
+     * 
+     * For the built-in numeric converters with a null format, values 
+     * in plain decimal notation are parsed directly and malformed values 
+     * are mostly rejected without creating an exception. This matters 
+     * when decoding large amounts of imported data.
+     * 
+     * @param converter the converter to use
+     * @param value the String to decode
+     * @param format the format, passed to the converter
+     * @param fallback the value to return if decoding fails
+     * @return the decoded value or the fallback
+     */
+    public static Object decode(Converter converter, String value, Object format, Object fallback) {
+        if ((format == null) && (value != null)) {
+            if (converter instanceof IntegerConverter) {
+                int digits = countDigits(value);
+                return isSafeDigits(value, digits, 9) ? Integer.valueOf(value) 
+                        : decodeSlow(converter, value, format, fallback, digits > 0); 
+            }
+            if (converter instanceof LongConverter) {
+                int digits = countDigits(value);
+                return isSafeDigits(value, digits, 18) ? Long.valueOf(value) 
+                        : decodeSlow(converter, value, format, fallback, digits > 0); 
+            }
+            if (converter instanceof ShortConverter) {
+                int digits = countDigits(value);
+                return isSafeDigits(value, digits, 4) ? Short.valueOf(value) 
+                        : decodeSlow(converter, value, format, fallback, digits > 0); 
+            }
+            if (converter instanceof DoubleConverter) {
+                return isDecimalNumber(value) ? Double.valueOf(value) 
+                        : decodeSlow(converter, value, format, fallback, isSpecialNumber(value)); 
+            }
+            if (converter instanceof FloatConverter) {
+                return isDecimalNumber(value) ? Float.valueOf(value) 
+                        : decodeSlow(converter, value, format, fallback, isSpecialNumber(value)); 
+            }
+        }
+        return decodeSlow(converter, value, format, fallback, true);
+    }
+
+    private static Object decodeSlow(Converter converter, String value, Object format, 
+            Object fallback, boolean tryDecode) {
+        if (!tryDecode) return fallback;
+        try {
+            return converter.decode(value, format);
+        } catch (Exception e) {
+            return fallback;
+        }
+    }
+    
+    /**
+     * Returns the number of digits if the value is an optionally signed
+     * sequence of decimal digits, -1 otherwise. 
+     */
+    private static int countDigits(String value) {
+        int length = value.length();
+        int start = (length > 0) && 
+            ((value.charAt(0) == '-') || (value.charAt(0) == '+')) ? 1 : 0;
+        if (length == start) return -1;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if ((c < '0') || (c > '9')) return -1;
+        }
+        return length - start;
+    }
+
+    /**
+     * Returns true if the wrapper's valueOf parses the value without 
+     * overflow. A leading '+' is left to valueOf, it's not accepted 
+     * before Java 7.
+     */
+    private static boolean isSafeDigits(String value, int digits, int maxDigits) {
+        return (digits > 0) && (digits <= maxDigits) && (value.charAt(0) != '+');
+    }
+
+    /**
+     * Returns true if the value is a number in plain decimal notation:
+     * [sign] digits [. digits] [(e|E) [sign] digits], with at least one 
+     * mantissa digit.
+     */
+    private static boolean isDecimalNumber(String value) {
+        int length = value.length();
+        int i = 0;
+        if ((i < length) && ((value.charAt(i) == '-') || (value.charAt(i) == '+'))) i++;
+        int digits = 0;
+        while ((i < length) && (value.charAt(i) >= '0') && (value.charAt(i) <= '9')) { 
+            i++; digits++; 
+        }
+        if ((i < length) && (value.charAt(i) == '.')) {
+            i++;
+            while ((i < length) && (value.charAt(i) >= '0') && (value.charAt(i) <= '9')) { 
+                i++; digits++; 
+            }
+        }
+        if (digits == 0) return false;
+        if ((i < length) && ((value.charAt(i) == 'e') || (value.charAt(i) == 'E'))) {
+            i++;
+            if ((i < length) && ((value.charAt(i) == '-') || (value.charAt(i) == '+'))) i++;
+            int expDigits = 0;
+            while ((i < length) && (value.charAt(i) >= '0') && (value.charAt(i) <= '9')) { 
+                i++; expDigits++; 
+            }
+            if (expDigits == 0) return false;
+        }
+        return i == length;
+    }
+
+    /**
+     * Returns true if the value might be valid for Double.valueOf although
+     * not in plain decimal notation: NaN, Infinity, hex notation, type 
+     * suffixes or surrounding whitespace.
+     */
+    private static boolean isSpecialNumber(String value) {
+        if (value.length() == 0) return false;
+        if (value.trim().length() != value.length()) return true;
+        char last = value.charAt(value.length() - 1);
+        return (value.indexOf('N') >= 0) || (value.indexOf('I') >= 0) 
+            || (value.indexOf('x') >= 0) || (value.indexOf('X') >= 0)
+            || (last == 'd') || (last == 'D') || (last == 'f') || (last == 'F');
     }
 
     /**
@@ -119,8 +235,8 @@ public class Converters {
      * @return an non-null array of supported types
      */
     public static Class[] getTypes() {
-	Set keys = map.keySet();
-	return (Class[])keys.toArray(new Class[0]);
+	Set<Class> keys = map.keySet();
+	return keys.toArray(new Class[0]);
     }
 
     protected Converters() {
@@ -344,29 +460,40 @@ public class Converters {
      * <code>DateFormat</code> or <code>null</code>.  If <code>null</code> is
      * specified, the converter will use the default <code>SimpleDateFormat</code>
      * object, whose format defaults to &quot;EEE MMM dd hh:mm:ss z yyyy&quot;.
+     * <p>
+     * DateFormats are not thread-safe, so every thread uses its own copy
+     * of the default formats. Formats passed as parameter are used as-is.
      *
      * @see java.text.DateFormat
      * @see java.text.SimpleDateFormat
      */
     public static class DateConverter implements Converter {
-        private DateFormat defaultInputFormat;
-        private DateFormat defaultOutputFormat;
+        private ThreadLocal<DateFormat> defaultInputFormat;
+        private ThreadLocal<DateFormat> defaultOutputFormat;
 
         public DateConverter() {
-            defaultInputFormat = defaultOutputFormat =
-                new SimpleDateFormat("EEE MMM dd HH:mm:ss z yyyy");
+            this(new SimpleDateFormat("EEE MMM dd HH:mm:ss z yyyy"), null);
         }
 
         public DateConverter(DateFormat defaultInputFormat,
                              DateFormat defaultOutputFormat) {
-            this.defaultInputFormat = defaultInputFormat;
-            this.defaultOutputFormat = defaultOutputFormat;
+            this.defaultInputFormat = createPerThreadFormat(defaultInputFormat);
+            this.defaultOutputFormat = defaultOutputFormat == null ? 
+                    this.defaultInputFormat : createPerThreadFormat(defaultOutputFormat);
         }
 
+        private static ThreadLocal<DateFormat> createPerThreadFormat(final DateFormat prototype) {
+            return new ThreadLocal<DateFormat>() {
+                protected DateFormat initialValue() {
+                    return prototype == null ? null : (DateFormat) prototype.clone();
+                }
+            };
+        }
+        
         public String encode(Object value, Object format)
             throws ConversionException {
             try {
-                DateFormat dateFormat = format == null ? defaultOutputFormat :
+                DateFormat dateFormat = format == null ? defaultOutputFormat.get() :
                     (DateFormat) format;
                 return dateFormat.format((Date)value);
             }
@@ -378,7 +505,7 @@ public class Converters {
         public Object decode(String value, Object format)
             throws ConversionException {
             try {
-                DateFormat dateFormat = format == null? defaultInputFormat :
+                DateFormat dateFormat = format == null? defaultInputFormat.get() :
                                                  (DateFormat)format;
                 return dateFormat.parse(value);
             }
@@ -24,17 +24,25 @@ package org.jdesktop.binding.swingx;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.InputVerifier;
 import javax.swing.JComponent;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
+import org.jdesktop.binding.AbstractDataModel;
 import org.jdesktop.binding.DataModel;
 import org.jdesktop.binding.ValueChangeEvent;
 import org.jdesktop.binding.ValueChangeListener;
+import org.jdesktop.binding.metadata.AsyncValidator;
 import org.jdesktop.binding.metadata.ConversionException;
 import org.jdesktop.binding.metadata.Converter;
 import org.jdesktop.binding.metadata.MetaData;
 import org.jdesktop.binding.metadata.Validator;
+import org.jdesktop.swingx.util.SwingWorker;
 
 /**
  * Abstract base class which implements a default mechanism for binding
@@ -60,6 +68,17 @@ public abstract class AbstractBinding implements Binding {
 
     private PropertyChangeSupport pcs;
     private int validationPolicy;
+    /** true if pull skipped the validation during a batch update. */
+    private boolean validationDeferred;
+
+    /** the running asynchronous validation, if any. */
+    private SwingWorker pendingValidation;
+    /** the converted value under asynchronous validation. */
+    private Object pendingValue;
+    /** results of asynchronous validations: value -> error messages. */
+    private Map<Object, String[]> asyncResults;
+    private static final int MAX_ASYNC_RESULTS = 32;
+    private static final String[] NO_ERRORS = new String[0];
     private static final PropertyChangeListener[] 
         EMPTY_PROPERTY_CHANGE_LISTENER_ARRAY = new PropertyChangeListener[0];
 
@@ -121,13 +140,24 @@ public abstract class AbstractBinding implements Binding {
 //        }
         setModified(false);
         setValidState(UNVALIDATED);
+        // results for the previous record don't apply
+        if (asyncResults != null) {
+            asyncResults.clear();
+        }
         // JW: initial check to force visual feedback on required
-        isValid();
+        if ((dataModel instanceof AbstractDataModel) 
+                && ((AbstractDataModel) dataModel).isFiringUpdate()) {
+            // validated once all fields of the record are pulled
+            validationDeferred = true;
+        } else {
+            isValid();
+        }
         pulling = false;
         return true;
     }
 
     public boolean push() {
+        waitForValidation();
         if (isValid()) {
             pushing = true;
             dataModel.setValue(metaData.getName(), cachedValue);
@@ -171,6 +201,15 @@ public abstract class AbstractBinding implements Binding {
             ok = executeValidators(convertedValue);
         }
 
+        // step 4: asynchronous validators, results come back later
+        if (ok) {
+            int asyncState = executeAsyncValidators(convertedValue);
+            if (asyncState == PENDING) {
+                setValidState(PENDING);
+                return false;
+            }
+            ok = asyncState == VALID;
+        }
         if (ok) {
             cachedValue = convertedValue;
         }
@@ -184,6 +223,20 @@ public abstract class AbstractBinding implements Binding {
         return validState;
     }
 
+    /**
+     * Validates if necessary and blocks until a pending asynchronous 
+     * validation is done. Returns immediately if there is none.
+     * 
+     */
+    public void waitForValidation() {
+        if (validState == UNVALIDATED) {
+            isValid();
+        }
+        if (pendingValidation != null) {
+            finishAsyncValidation(pendingValidation);
+        }
+    }
+
 
     public String[] getValidationErrors() {
         if (errorList != null) {
@@ -312,6 +365,7 @@ public abstract class AbstractBinding implements Binding {
         Validator validators[] = metaData.getValidators();
         boolean isValid = true;
         for (int i = 0; i < validators.length; i++) {
+            if (validators[i] instanceof AsyncValidator) continue;
             String error[] = new String[1];
             boolean passed = validators[i].validate(value, null, error);
             if (!passed) {
@@ -325,6 +379,106 @@ public abstract class AbstractBinding implements Binding {
         return isValid;
     }
 
+    /**
+     * Starts the AsyncValidators of the metaData on a background thread, 
+     * the result is applied on the EDT. Doesn't start anything if there 
+     * are no such validators or the result for the value is already known.
+     * 
+     * @param value the converted value to validate
+     * @return PENDING if a validation was started, else VALID or INVALID
+     */
+    protected int executeAsyncValidators(final Object value) {
+        final List<Validator> validators = new ArrayList<Validator>();
+        Validator[] all = metaData.getValidators();
+        for (int i = 0; i < all.length; i++) {
+            if (all[i] instanceof AsyncValidator) {
+                validators.add(all[i]);
+            }
+        }
+        if (validators.isEmpty()) return VALID;
+        String[] errors = asyncResults != null ? asyncResults.get(value) : null;
+        if (errors != null) {
+            for (int i = 0; i < errors.length; i++) {
+                if (errors[i] != null) {
+                    addError(errors[i]);
+                }
+            }
+            return errors.length == 0 ? VALID : INVALID;
+        }
+        cancelAsyncValidation();
+        pendingValue = value;
+        pendingValidation = new SwingWorker() {
+            public Object construct() {
+                List<String> errors = new ArrayList<String>();
+                for (int i = 0; i < validators.size(); i++) {
+                    String[] error = new String[1];
+                    try {
+                        if (!validators.get(i).validate(value, null, error)) {
+                            errors.add(error[0]);
+                        }
+                    } catch (RuntimeException e) {
+                        errors.add("validation failed: " + e.getMessage());
+                    }
+                }
+                return errors.isEmpty() ? NO_ERRORS 
+                        : errors.toArray(new String[errors.size()]);
+            }
+            
+            public void finished() {
+                // stale if the value changed in the meantime 
+                if (this == pendingValidation) {
+                    finishAsyncValidation(this);
+                }
+            }
+        };
+        pendingValidation.start();
+        return PENDING;
+    }
+
+    /**
+     * Waits for the result of the given validation and applies it.
+     * 
+     * @param validation
+     */
+    private void finishAsyncValidation(SwingWorker validation) {
+        String[] errors = (String[]) validation.get();
+        pendingValidation = null;
+        if (errors == null) {
+            // interrupted
+            setValidState(UNVALIDATED);
+            return;
+        }
+        if (asyncResults == null) {
+            asyncResults = new LinkedHashMap<Object, String[]>() {
+                protected boolean removeEldestEntry(Map.Entry eldest) {
+                    return size() > MAX_ASYNC_RESULTS;
+                }
+            };
+        }
+        asyncResults.put(pendingValue, errors);
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                addError(errors[i]);
+            }
+        }
+        if (errors.length == 0) {
+            cachedValue = pendingValue;
+        }
+        pendingValue = null;
+        setValidState(errors.length == 0 ? VALID : INVALID);
+    }
+
+    /**
+     * Discards a running asynchronous validation.
+     */
+    protected void cancelAsyncValidation() {
+        if (pendingValidation != null) {
+            pendingValidation.interrupt();
+            pendingValidation = null;
+            pendingValue = null;
+        }
+    }
+
     protected void addError(String error) {
         if (errorList == null) {
             errorList = new ArrayList();
@@ -357,6 +511,7 @@ public abstract class AbstractBinding implements Binding {
         if (oldValidState != validState &&
             validState == UNVALIDATED) {
             clearValidationErrors();
+            cancelAsyncValidation();
         }
         if (validState != oldValidState) {
             firePropertyChange("validState",
@@ -374,7 +529,9 @@ public abstract class AbstractBinding implements Binding {
             public boolean verify(JComponent input) {
                 if (validationPolicy != AUTO_VALIDATE_NONE) {
                     boolean isValid = isValid();
-                    if (!isValid && validationPolicy == AUTO_VALIDATE_STRICT) {
+                    // JW: don't block the focus while waiting for the result
+                    if (!isValid && validationPolicy == AUTO_VALIDATE_STRICT
+                            && validState != PENDING) {
                         return false;
                     }
                     return true;
@@ -405,14 +562,28 @@ public abstract class AbstractBinding implements Binding {
     }
 
     protected void installDataModelListener() {
-        dataModel.addValueChangeListener(new ValueChangeListener() {
+        ValueChangeListener l = new ValueChangeListener() {
             public void valueChanged(ValueChangeEvent e) {
                 if (e.getFieldName().equals(fieldName) &&
                       !pushing) {
                     pull();
                 }
             }
-        });
+        };
+        if (dataModel instanceof AbstractDataModel) {
+            // don't see the events of all the other fields
+            ((AbstractDataModel) dataModel).addValueChangeListener(fieldName, l);
+            ((AbstractDataModel) dataModel).addUpdateListener(new ChangeListener() {
+                public void stateChanged(ChangeEvent e) {
+                    if (validationDeferred) {
+                        validationDeferred = false;
+                        isValid();
+                    }
+                }
+            });
+        } else {
+            dataModel.addValueChangeListener(l);
+        }
     }
 
 
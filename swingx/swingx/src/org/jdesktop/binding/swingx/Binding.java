@@ -51,6 +51,8 @@ public interface Binding {
     public static final int UNVALIDATED = 0;
     public static final int VALID = 1;
     public static final int INVALID = 2;
+    /** asynchronous validators are still running. */
+    public static final int PENDING = 3;
 
     JComponent getComponent();
 
@@ -29,6 +29,7 @@ import java.util.List;
 
 import javax.swing.SwingUtilities;
 
+import org.jdesktop.binding.AbstractDataModel;
 import org.jdesktop.binding.DataModel;
 import org.jdesktop.binding.metadata.Validator;
 
@@ -50,6 +51,13 @@ public class BindingHandler {
 
     private boolean autoCommit;
 
+    /** the models batched by beginUpdate. */
+    private List<AbstractDataModel> updatingModels;
+
+    private int lastUpdateCount;
+
+    private boolean lastUpdateValid = true;
+
     public boolean isModified() {
         return modified;
     }
@@ -109,25 +117,40 @@ public class BindingHandler {
             if (!models.contains(bindingModel)) {
                 models.add(bindingModel);
             }
+            if (element instanceof AbstractBinding) {
+                // asynchronous validators might still be running
+                ((AbstractBinding) element).waitForValidation();
+            }
             if (!element.isValid()) {
                 result = false;
             }
 
         }
         if (result) {
-            for (int i = 0; i < models.size(); i++) {
-                DataModel model = (DataModel) models.get(i);
-                Validator validators[] = model.getValidators();
-                for (int j = 0; j < validators.length; j++) {
-                    String error[] = new String[1];
-                    /** @todo aim: where to put error? */
-                    if (!validators[j].validate(model, /* getLocale() */null,
-                            error)) {
-                        result = false;
-                    }
+            result = validateModels(models);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the record level validators of the given models.
+     * 
+     * @param models the DataModels to validate
+     * @return true if all validators passed
+     */
+    private boolean validateModels(List models) {
+        boolean result = true;
+        for (int i = 0; i < models.size(); i++) {
+            DataModel model = (DataModel) models.get(i);
+            Validator validators[] = model.getValidators();
+            for (int j = 0; j < validators.length; j++) {
+                String error[] = new String[1];
+                /** @todo aim: where to put error? */
+                if (!validators[j].validate(model, /* getLocale() */null,
+                        error)) {
+                    result = false;
                 }
             }
-
         }
         return result;
     }
@@ -146,6 +169,77 @@ public class BindingHandler {
         return result;
     }
 
+    /**
+     * Starts a batch of changes on the data models of the contained bindings,
+     * f.i. before switching to another record. Until the matching endUpdate
+     * the bindings are not pulled, endUpdate pulls each changed field
+     * once, validates the pulled bindings once and runs the record level 
+     * validators once per model, see lastUpdateValid. Calls must not 
+     * be nested.
+     * 
+     */
+    public void beginUpdate() {
+        if (updatingModels != null) {
+            throw new IllegalStateException("already updating");
+        }
+        updatingModels = new ArrayList<AbstractDataModel>();
+        for (Iterator iter = getBindingList().iterator(); iter.hasNext();) {
+            DataModel model = ((Binding) iter.next()).getDataModel();
+            if ((model instanceof AbstractDataModel) 
+                    && !updatingModels.contains(model)) {
+                AbstractDataModel abstractModel = (AbstractDataModel) model;
+                abstractModel.beginUpdate();
+                updatingModels.add(abstractModel);
+            }
+        }
+    }
+
+    /**
+     * Ends a batch started by beginUpdate. 
+     * 
+     * @return the number of field notifications sent to the bindings.
+     */
+    public int endUpdate() {
+        if (updatingModels == null) {
+            throw new IllegalStateException("endUpdate without beginUpdate");
+        }
+        List<AbstractDataModel> models = updatingModels;
+        updatingModels = null;
+        int count = 0;
+        for (int i = 0; i < models.size(); i++) {
+            count += models.get(i).endUpdate();
+        }
+        lastUpdateCount = count;
+        if (count > 0) {
+            setLastUpdateValid(validateModels(models));
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the record level validators passed for the data 
+     * changed in the last batch. This is a bound property.
+     * 
+     * @return false if a record level validator failed in the last 
+     *   endUpdate which changed fields.
+     */
+    public boolean isLastUpdateValid() {
+        return lastUpdateValid;
+    }
+
+    private void setLastUpdateValid(boolean valid) {
+        boolean old = lastUpdateValid;
+        lastUpdateValid = valid;
+        firePropertyChange("lastUpdateValid", Boolean.valueOf(old), 
+                Boolean.valueOf(valid));
+    }
+
+    /**
+     * @return the number of field notifications sent by the last endUpdate.
+     */
+    public int getLastUpdateCount() {
+        return lastUpdateCount;
+    }
     
     // ---------------- property change support
 
@@ -29,6 +29,7 @@ import org.jdesktop.binding.DataModel;
 import org.jdesktop.binding.IndexMapper;
 import org.jdesktop.binding.SelectionModel;
 import org.jdesktop.binding.TabularDataModel;
+import org.jdesktop.binding.swingx.adapter.BeanListTableModel;
 import org.jdesktop.binding.swingx.adapter.DataModelToTableModelAdapter;
 import org.jdesktop.binding.swingx.adapter.ListSelectionBinding;
 import org.jdesktop.swingx.JXTable;
@@ -76,6 +77,20 @@ public class DirectTableBinding extends AbstractBinding {
         }
     }
 
+    /**
+     * Binds the table to a list of beans. The table reads the beans
+     * directly through the given model, bypassing the DataModel 
+     * adapter chain.
+     * 
+     * @param component
+     * @param beanListModel
+     */
+    public DirectTableBinding(JTable component, BeanListTableModel beanListModel) {
+        super(component, beanListModel.getBeanDataModel(), "", 
+                DirectTableBinding.AUTO_VALIDATE_NONE);
+        table.setModel(beanListModel);
+    }
+
     private IndexMapper createIndexMapper(final JTable table) {
 
         if (!(table instanceof JXTable)) return null;
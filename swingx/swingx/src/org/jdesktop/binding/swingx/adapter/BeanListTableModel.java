@@ -0,0 +1,488 @@
+/*
+ * $Id$
+ *
+ * Copyright 2005 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.binding.swingx.adapter;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.table.AbstractTableModel;
+
+import org.jdesktop.binding.JavaBeanDataModel;
+import org.jdesktop.binding.metadata.DefaultMetaDataProvider;
+import org.jdesktop.binding.metadata.MetaData;
+import org.jdesktop.binding.metadata.MetaDataProvider;
+
+/**
+ * TableModel for a list of beans of the same class, one bean per row and
+ * one property per column. <p>
+ *
+ * Unlike DataModelToTableModelAdapter there is no lookup by field name
+ * per cell: the getters and setters are resolved once per column.
+ * Optionally the values of all columns are snapshot into arrays, so
+ * that sorting and filtering don't call the getters at all. If the beans
+ * support bound properties, the model listens to each bean and updates
+ * only the changed cell. <p>
+ *
+ * The MetaData is that of a JavaBeanDataModel for the bean class, which
+ * is available as getBeanDataModel.
+ *
+ * @author Jeanette Winzenburg
+ */
+public class BeanListTableModel extends AbstractTableModel
+    implements MetaDataProvider {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private JavaBeanDataModel beanDataModel;
+    private DefaultMetaDataProvider metaDataProvider;
+    private List beans;
+
+    /** the accessors by column index. */
+    private Method[] readMethods;
+    private Method[] writeMethods;
+    /** the bean's listener registration methods, null if not bound. */
+    private Method addListenerMethod;
+    private Method removeListenerMethod;
+
+    /** 
+     * the snapshot values by column, null if not snapshotting. The arrays
+     * have spare capacity, only the first getRowCount() values are valid.
+     */
+    private Object[][] columns;
+    private boolean snapshot;
+
+    /** bean -> row index, lazily created. */
+    private Map<Object, Integer> rowIndices;
+    private PropertyChangeListener beanListener;
+    /** the bean and column set in setValueAt, its own event is redundant. */
+    private Object settingBean;
+    private int settingColumn = -1;
+
+    public BeanListTableModel(Class beanClass) throws IntrospectionException {
+        this(beanClass, null, null);
+    }
+
+    public BeanListTableModel(Class beanClass, List beans) throws IntrospectionException {
+        this(beanClass, beans, null);
+    }
+
+    /**
+     *
+     * @param beanClass the class of the beans
+     * @param beans the beans to show, the model doesn't copy the list.
+     * @param visibleFieldNames the properties to show as columns, all if null.
+     * @throws IntrospectionException
+     */
+    public BeanListTableModel(Class beanClass, List beans,
+            String[] visibleFieldNames) throws IntrospectionException {
+        beanDataModel = new JavaBeanDataModel(beanClass);
+        initMetaDataProvider(visibleFieldNames);
+        initAccessors();
+        setBeans(beans);
+    }
+
+    /**
+     * @return the JavaBeanDataModel providing the MetaData.
+     */
+    public JavaBeanDataModel getBeanDataModel() {
+        return beanDataModel;
+    }
+
+    /**
+     * Sets the beans to show. The model doesn't copy the list,
+     * changes must be done through the model's methods or be
+     * followed by a call to fireTableDataChanged.
+     *
+     * @param beans the beans to show, may be null.
+     */
+    public void setBeans(List beans) {
+        uninstallBeanListener();
+        this.beans = beans != null ? beans : new ArrayList();
+        rowIndices = null;
+        installBeanListener();
+        updateSnapshot();
+        fireTableDataChanged();
+    }
+
+    public List getBeans() {
+        return beans;
+    }
+
+    public Object getBean(int rowIndex) {
+        return beans.get(rowIndex);
+    }
+
+    public void addBean(Object bean) {
+        addBean(beans.size(), bean);
+    }
+
+    public void addBean(int rowIndex, Object bean) {
+        beans.add(rowIndex, bean);
+        installBeanListener(bean);
+        if (rowIndex < beans.size() - 1) {
+            rowIndices = null;
+        } else if (rowIndices != null) {
+            rowIndices.put(bean, rowIndex);
+        }
+        if (columns != null) {
+            int rowCount = beans.size();
+            ensureCapacity(rowCount);
+            for (int column = 0; column < columns.length; column++) {
+                Object[] values = columns[column];
+                System.arraycopy(values, rowIndex, values, rowIndex + 1, 
+                        rowCount - 1 - rowIndex);
+                values[rowIndex] = readValue(bean, column);
+            }
+        }
+        fireTableRowsInserted(rowIndex, rowIndex);
+    }
+
+    /**
+     * Appends the given beans with a single notification.
+     * 
+     * @param added the beans to append.
+     */
+    public void addBeans(Collection added) {
+        if (added.isEmpty()) return;
+        int firstRow = beans.size();
+        beans.addAll(added);
+        int rowCount = beans.size();
+        if (columns != null) {
+            ensureCapacity(rowCount);
+        }
+        for (int row = firstRow; row < rowCount; row++) {
+            Object bean = beans.get(row);
+            installBeanListener(bean);
+            if (rowIndices != null) {
+                rowIndices.put(bean, row);
+            }
+            if (columns != null) {
+                for (int column = 0; column < columns.length; column++) {
+                    columns[column][row] = readValue(bean, column);
+                }
+            }
+        }
+        fireTableRowsInserted(firstRow, rowCount - 1);
+    }
+
+    public Object removeBean(int rowIndex) {
+        Object bean = beans.remove(rowIndex);
+        uninstallBeanListener(bean);
+        rowIndices = null;
+        if (columns != null) {
+            int rowCount = beans.size();
+            for (int column = 0; column < columns.length; column++) {
+                Object[] values = columns[column];
+                System.arraycopy(values, rowIndex + 1, values, rowIndex, 
+                        rowCount - rowIndex);
+                values[rowCount] = null;
+            }
+        }
+        fireTableRowsDeleted(rowIndex, rowIndex);
+        return bean;
+    }
+
+    /**
+     * Notifies the model that properties of the bean at the given row
+     * were changed without notice.
+     *
+     * @param rowIndex
+     */
+    public void fireBeanChanged(int rowIndex) {
+        if (columns != null) {
+            Object bean = beans.get(rowIndex);
+            for (int column = 0; column < columns.length; column++) {
+                columns[column][rowIndex] = readValue(bean, column);
+            }
+        }
+        fireTableRowsUpdated(rowIndex, rowIndex);
+    }
+
+    /**
+     * @param bean the bean to look up.
+     * @return the row index of the bean or -1 if not contained.
+     */
+    public int indexOfBean(Object bean) {
+        if (rowIndices == null) {
+            rowIndices = new IdentityHashMap<Object, Integer>(beans.size() * 4 / 3 + 1);
+            for (int i = 0; i < beans.size(); i++) {
+                rowIndices.put(beans.get(i), i);
+            }
+        }
+        Integer index = rowIndices.get(bean);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Sets whether the column values are copied into arrays. This trades
+     * memory for speed in the frequent getValueAt calls of sorting
+     * and filtering.
+     *
+     * @param snapshot
+     */
+    public void setSnapshot(boolean snapshot) {
+        if (this.snapshot == snapshot) return;
+        this.snapshot = snapshot;
+        updateSnapshot();
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    // ---------------------------- TableModel
+
+    public int getRowCount() {
+        return beans.size();
+    }
+
+    public int getColumnCount() {
+        return getFieldCount();
+    }
+
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if (columns != null) {
+            return columns[columnIndex][rowIndex];
+        }
+        return readValue(beans.get(rowIndex), columnIndex);
+    }
+
+    public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
+        Method writeMethod = writeMethods[columnIndex];
+        if (writeMethod == null) return;
+        Object bean = beans.get(rowIndex);
+        settingBean = bean;
+        settingColumn = columnIndex;
+        try {
+            writeMethod.invoke(bean, new Object[] { aValue });
+        } catch (Exception e) {
+            // XXX exception for illegal access, etc..
+            e.printStackTrace();
+            return;
+        } finally {
+            settingBean = null;
+            settingColumn = -1;
+        }
+        if (columns != null) {
+            columns[columnIndex][rowIndex] = readValue(bean, columnIndex);
+        }
+        fireTableCellUpdated(rowIndex, columnIndex);
+    }
+
+    public Class getColumnClass(int columnIndex) {
+        return getMetaData(getFieldName(columnIndex)).getElementClass();
+    }
+
+    public String getColumnName(int column) {
+        return getMetaData(getFieldName(column)).getLabel();
+    }
+
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return writeMethods[columnIndex] != null
+            && !getMetaData(getFieldName(columnIndex)).isReadOnly();
+    }
+
+    // ------------------------ MetaDataProvider
+
+    public String[] getFieldNames() {
+        return metaDataProvider.getFieldNames();
+    }
+
+    public int getFieldCount() {
+        return metaDataProvider.getFieldCount();
+    }
+
+    public MetaData getMetaData(String dataID) {
+        return metaDataProvider.getMetaData(dataID);
+    }
+
+    public MetaData[] getMetaData() {
+        return metaDataProvider.getMetaData();
+    }
+
+    private String getFieldName(int columnIndex) {
+        return metaDataProvider.getFieldName(columnIndex);
+    }
+
+    // ------------------------ internals
+
+    private Object readValue(Object bean, int columnIndex) {
+        Method readMethod = readMethods[columnIndex];
+        if ((readMethod == null) || (bean == null)) return null;
+        try {
+            return readMethod.invoke(bean, NO_ARGS);
+        } catch (Exception e) {
+            // XXX exception for illegal access, etc..
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private void updateSnapshot() {
+        if (!snapshot) {
+            columns = null;
+            return;
+        }
+        int rowCount = beans.size();
+        columns = new Object[getColumnCount()][];
+        for (int column = 0; column < columns.length; column++) {
+            Object[] values = new Object[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                values[row] = readValue(beans.get(row), column);
+            }
+            columns[column] = values;
+        }
+    }
+
+    /**
+     * Grows the snapshot arrays to hold at least the given number of rows.
+     * Grows by half, so that adding row by row copies each value only
+     * a few times.
+     * 
+     * @param rowCount the number of rows to hold.
+     */
+    private void ensureCapacity(int rowCount) {
+        for (int column = 0; column < columns.length; column++) {
+            Object[] values = columns[column];
+            if (values.length >= rowCount) continue;
+            Object[] grown = new Object[Math.max(rowCount, values.length * 3 / 2 + 1)];
+            System.arraycopy(values, 0, grown, 0, values.length);
+            columns[column] = grown;
+        }
+    }
+
+    /**
+     * Updates the changed cell of a bean with bound properties.
+     *
+     * @param evt
+     */
+    protected void beanPropertyChanged(PropertyChangeEvent evt) {
+        int row = indexOfBean(evt.getSource());
+        if (row < 0) return;
+        String propertyName = evt.getPropertyName();
+        int column = propertyName != null ?
+                metaDataProvider.getFieldIndex(propertyName) : -1;
+        if ((column == settingColumn) && (evt.getSource() == settingBean)) return;
+        if (column < 0) {
+            if (propertyName == null) {
+                fireBeanChanged(row);
+            }
+            return;
+        }
+        if (columns != null) {
+            Object value = readValue(evt.getSource(), column);
+            Object old = columns[column][row];
+            if ((old == value) || ((old != null) && old.equals(value))) return;
+            columns[column][row] = value;
+        }
+        fireTableCellUpdated(row, column);
+    }
+
+    private void installBeanListener() {
+        if (addListenerMethod == null) return;
+        for (int i = 0; i < beans.size(); i++) {
+            installBeanListener(beans.get(i));
+        }
+    }
+
+    private void installBeanListener(Object bean) {
+        if ((addListenerMethod == null) || (bean == null)) return;
+        try {
+            addListenerMethod.invoke(bean, new Object[] { getBeanListener() });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void uninstallBeanListener() {
+        if ((beans == null) || (removeListenerMethod == null)) return;
+        for (int i = 0; i < beans.size(); i++) {
+            uninstallBeanListener(beans.get(i));
+        }
+    }
+
+    private void uninstallBeanListener(Object bean) {
+        if ((removeListenerMethod == null) || (bean == null)) return;
+        try {
+            removeListenerMethod.invoke(bean, new Object[] { getBeanListener() });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private PropertyChangeListener getBeanListener() {
+        if (beanListener == null) {
+            beanListener = new PropertyChangeListener() {
+                public void propertyChange(PropertyChangeEvent evt) {
+                    beanPropertyChanged(evt);
+                }
+            };
+        }
+        return beanListener;
+    }
+
+    private void initMetaDataProvider(String[] visibleFieldNames) {
+        if (visibleFieldNames == null) {
+            metaDataProvider = new DefaultMetaDataProvider(beanDataModel);
+        } else {
+            MetaData[] metas = new MetaData[visibleFieldNames.length];
+            for (int i = 0; i < metas.length; i++) {
+                metas[i] = beanDataModel.getMetaData(visibleFieldNames[i]);
+            }
+            metaDataProvider = new DefaultMetaDataProvider(metas);
+        }
+    }
+
+    private void initAccessors() {
+        int count = getFieldCount();
+        readMethods = new Method[count];
+        writeMethods = new Method[count];
+        for (int i = 0; i < count; i++) {
+            readMethods[i] = accessible(beanDataModel.getReadMethod(getFieldName(i)));
+            writeMethods[i] = accessible(beanDataModel.getWriteMethod(getFieldName(i)));
+        }
+        addListenerMethod = accessible(beanDataModel.getAddListenerMethod());
+        removeListenerMethod = accessible(beanDataModel.getRemoveListenerMethod());
+    }
+
+    /**
+     * Suppresses the access checks on every invoke, if allowed. The 
+     * methods are this model's own copies.
+     */
+    private static Method accessible(Method method) {
+        if (method != null) {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                // keep the checks
+            }
+        }
+        return method;
+    }
+
+}
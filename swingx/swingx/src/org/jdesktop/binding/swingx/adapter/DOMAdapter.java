@@ -20,12 +20,21 @@
  */
 
 package org.jdesktop.binding.swingx.adapter;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.jdesktop.binding.metadata.Converter;
+import org.jdesktop.binding.metadata.Converters;
 import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.events.Event;
+import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.EventTarget;
 
 
 // CLEAN: temporarily moved from old jdnc/swingx tree to allow
@@ -34,6 +43,11 @@ public class DOMAdapter extends DefaultTreeTableModel {
 	protected	Document	dom = null;
 //    private		Element		columns = null;
     private		HierarchicalDataMetaData metaData;
+    /** the "row" child elements per element, built on first access. */
+    private     Map<Element, Element[]> rowsCache = new IdentityHashMap<Element, Element[]>();
+    /** the cells per row element, decoded on first access. */
+    private     Map<Element, Cells> cellsCache = new IdentityHashMap<Element, Cells>();
+    private static final Element[] NO_ELEMENTS = new Element[0];
 /*
     private		int	userDataSupportType = 0;	// 1 == getUserData; 2 == getUserObject
     private static final int GET_USER_DATA = 1;
@@ -53,6 +67,7 @@ public class DOMAdapter extends DefaultTreeTableModel {
 
         if (this.dom == null) {
             this.dom = dom;
+            installMutationListener();
             /** @todo Handle case where no metaData is present! */
             Element	metaDataElem = (Element) dom.getDocumentElement().getElementsByTagNameNS(
                 "http://www.jdesktop.org/2004/05/jdnc", "metaData").item(0);
@@ -103,81 +118,127 @@ public class DOMAdapter extends DefaultTreeTableModel {
     }
 
 	public Object getChild(Object parent, int index) {
-        Element		parentElement = (Element) parent;
-        NodeList	list = ((Element) parentElement).getChildNodes();
-        int			i = 0, k = index, max = list.getLength();
-        Node		node;
-        Element		elem;
-        while (i < max) {
-            node = list.item(i++);
-            if (node instanceof Element) {
-                elem = (Element) node;
-                if (elem.getLocalName().equals("row")) {
-                    if (k-- == 0) {
-                        /*
-                        System.out.print("got child:");
-                        NamedNodeMap	attributes = elem.getAttributes();
-                        for (int a = 0; a < attributes.getLength(); a++) {
-                            System.out.print(" " +
-                                             attributes.item(a).getNamespaceURI() + ":" +
-                                             attributes.item(a).getLocalName() + "=" +
-                                             attributes.item(a).getNodeValue());
-                        }
-                        System.out.println(";");
-*/
-                        return elem;
-                    }
-                }
+        Element[] rows = getRows((Element) parent);
+        return (index >= 0) && (index < rows.length) ? rows[index] : null;
+    }
+
+    public int getChildCount(Object parent) {
+        return getRows((Element) parent).length;
+    }
+
+    public int getIndexOfChild(Object parent, Object child) {
+        if ((parent == null) || (child == null)) return -1;
+        Element[] rows = getRows((Element) parent);
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == child) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Clears the cached rows and cell values. The caches are cleared
+     * automatically on changes to the dom if it supports mutation events, 
+     * otherwise this must be called after changing the dom.
+     */
+    public void clearCache() {
+        rowsCache.clear();
+        cellsCache.clear();
+    }
+
+    /**
+     * Removes the cached rows and cells of the node and all its ancestors.
+     * 
+     * @param node the node which changed.
+     */
+    protected void invalidate(Node node) {
+        while (node != null) {
+            rowsCache.remove(node);
+            cellsCache.remove(node);
+            node = node.getParentNode();
+        }
+    }
+
+    /**
+     * Removes the cached rows and cells of the node and all its 
+     * descendants, so that detached subtrees are not kept alive by
+     * the caches.
+     * 
+     * @param node the node which is removed from the dom.
+     */
+    protected void release(Node node) {
+        if (rowsCache.isEmpty() && cellsCache.isEmpty()) return;
+        rowsCache.remove(node);
+        cellsCache.remove(node);
+        for (Node child = node.getFirstChild(); child != null; 
+                child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                release(child);
             }
         }
-/*
-        if (true) {
-            // We should never get here!
-            System.out.print(parentElement.getLocalName());
-            NamedNodeMap attributes = parentElement.getAttributes();
-            for (int a = 0; a < attributes.getLength(); a++) {
-                System.out.print(" " + attributes.item(a).getNamespaceURI() + ":" +
-                                 attributes.item(a).getLocalName() + "=" +
-                                 attributes.item(a).getNodeValue());
+    }
+
+    private void installMutationListener() {
+        if (!(dom instanceof EventTarget)) return;
+        EventListener l = new EventListener() {
+            public void handleEvent(Event evt) {
+                if (evt.getTarget() instanceof Node) {
+                    invalidate((Node) evt.getTarget());
+                } else {
+                    clearCache();
+                }
+            }
+        };
+        EventListener removed = new EventListener() {
+            public void handleEvent(Event evt) {
+                if (evt.getTarget() instanceof Node) {
+                    release((Node) evt.getTarget());
+                }
             }
-            System.out.println(" has no child at index " + k);
+        };
+        try {
+            // DOMSubtreeModified targets the lowest common parent of the changes
+            ((EventTarget) dom).addEventListener("DOMSubtreeModified", l, false);
+            // DOMNodeRemoved targets the root of a removed subtree
+            ((EventTarget) dom).addEventListener("DOMNodeRemoved", removed, false);
+        } catch (RuntimeException e) {
+            // mutation events not supported, clearCache must be called manually
         }
- */
-        return null;
-	}
+    }
+    
+    private Element[] getRows(Element parent) {
+        Element[] rows = rowsCache.get(parent);
+        if (rows == null) {
+            rows = getChildElements(parent, "row");
+            rowsCache.put(parent, rows);
+        }
+        return rows;
+    }
 
-	public int getChildCount(Object parent) {
-        Element		parentElement = (Element) parent;
+    private Element[] getChildElements(Element parentElement, String localName) {
+        List<Element> result = null;
         NodeList	list = ((Element) parentElement).getChildNodes();
-        int			i = 0, k = 0, max = list.getLength();
+        int			i = 0, max = list.getLength();
         Node		node;
-        Element		elem = null;
+        Element		elem;
         while (i < max) {
             node = list.item(i++);
             if (node instanceof Element) {
                 elem = (Element) node;
-                if (elem.getLocalName().equals("row")) {
-                    k++;
+                if (localName.equals(elem.getLocalName())) {
+                    if (result == null) {
+                        result = new ArrayList<Element>();
+                    }
+                    result.add(elem);
                 }
             }
         }
-/*
-		if (true) {
-            System.out.print(parentElement.getLocalName());
-            NamedNodeMap attributes = parentElement.getAttributes();
-            for (int a = 0; a < attributes.getLength(); a++) {
-                System.out.print(" " + attributes.item(a).getNamespaceURI() + ":" +
-                                 attributes.item(a).getLocalName() + "=" +
-                                 attributes.item(a).getNodeValue());
-            }
-            System.out.println(" has " + k + " children");
-        }
- */
-        return k;
+        return result == null ? NO_ELEMENTS : result.toArray(new Element[result.size()]);
 	}
 
     public void setMetaData(HierarchicalDataMetaData metaData) {
         this.metaData = metaData;
+        // the cached values are decoded with the old converters
+        clearCache();
     }
 
     public HierarchicalDataMetaData getMetaData() {
@@ -206,42 +267,47 @@ public class DOMAdapter extends DefaultTreeTableModel {
 	public Object getValueAt(Object node, int column) {
         if (node == null)
             throw new IllegalArgumentException("Node is null; " + column);
-        Element		parentElement = (Element) node;
-        NodeList	list = ((Element) parentElement).getChildNodes();
-        int			i = 0, k = column, max = list.getLength();
-        Node		n;
-        Element		elem;
-        while (i < max) {
-            n = list.item(i++);
-            if (n instanceof Element) {
-                elem = (Element) n;
-                if (elem.getLocalName().equals("cell")) {
-                    if (k-- == 0) {
-                        //    System.out.println("Value of " + node + " at column " +
-                        //                       column + "=" + elem + ";" + elem.getFirstChild());
-                        Node cellData = elem.getFirstChild();
-                        String	rawValue = cellData == null ?
-                            	"" : cellData.getNodeValue();
-                        Converter converter =
-                            getMetaData().getColumnConverter(column + 1);
-                        if (converter == null) {
-                            return rawValue;
-                        }
-                        else {
-                            try {
-                                /** @todo cache converted value */
-                                return converter.decode(rawValue, null);
-                            }
-                            catch (Exception ex) {
-                                return rawValue;
-                            }
-                        }
-                    }
-                }
-            }
+        Cells cells = cellsCache.get(node);
+        if (cells == null) {
+            cells = new Cells(getChildElements((Element) node, "cell"));
+            cellsCache.put((Element) node, cells);
+        }
+        if ((column < 0) || (column >= cells.elements.length)) {
+            return null;
         }
-        return null;
+        if (!cells.decoded[column]) {
+            cells.values[column] = decodeCell(cells.elements[column], column);
+            cells.decoded[column] = true;
+        }
+        return cells.values[column];
 	}
+
+    /**
+     * The cell elements of a row and their decoded values.
+     */
+    private static class Cells {
+        final Element[] elements;
+        final Object[] values;
+        final boolean[] decoded;
+        
+        Cells(Element[] elements) {
+            this.elements = elements;
+            values = new Object[elements.length];
+            decoded = new boolean[elements.length];
+        }
+    }
+
+    private Object decodeCell(Element elem, int column) {
+        Node cellData = elem.getFirstChild();
+        String	rawValue = cellData == null ?
+            	"" : cellData.getNodeValue();
+        Converter converter =
+            getMetaData().getColumnConverter(column + 1);
+        if (converter == null) {
+            return rawValue;
+        }
+        return Converters.decode(converter, rawValue, null, rawValue);
+    }
 /*
 	private Object[] getCells(Element element) {
         Object[]	cells = null;
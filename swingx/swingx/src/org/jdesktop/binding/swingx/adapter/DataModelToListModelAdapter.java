@@ -41,7 +41,15 @@ public class DataModelToListModelAdapter extends AbstractListModel {
 		TabularValueChangeListener l = new TabularValueChangeListener() {
 
             public void tabularValueChanged(TabularValueChangeEvent e) {
-                fireContentsChanged(DataModelToListModelAdapter.this, 0, tabModel.getRecordCount() - 1);
+                if (e.getType() == TabularValueChangeEvent.INSERT) {
+                    fireIntervalAdded(DataModelToListModelAdapter.this, 
+                            e.getRowIndex(), e.getLastRowIndex());
+                } else if (e.getType() == TabularValueChangeEvent.DELETE) {
+                    fireIntervalRemoved(DataModelToListModelAdapter.this, 
+                            e.getRowIndex(), e.getLastRowIndex());
+                } else {
+                    fireContentsChanged(DataModelToListModelAdapter.this, 0, tabModel.getRecordCount() - 1);
+                }
                 
             }
 		};
@@ -20,6 +20,7 @@
  */
 package org.jdesktop.binding.swingx.adapter;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 
 import org.jdesktop.binding.TabularDataModel;
@@ -170,7 +171,20 @@ public class DataModelToTableModelAdapter extends AbstractTableModel
             public void tabularValueChanged(TabularValueChangeEvent e) {
                 int rowIndex = e.getRowIndex();
                 int columnIndex = findColumnIndex(e.getFieldName());
-                if (rowIndex < 0) {
+                if (e.getType() == TabularValueChangeEvent.INSERT) {
+                    fireTableRowsInserted(rowIndex, e.getLastRowIndex());
+                } else if (e.getType() == TabularValueChangeEvent.DELETE) {
+                    fireTableRowsDeleted(rowIndex, e.getLastRowIndex());
+                } else if (e.getLastRowIndex() != rowIndex) {
+                    // a range of updated rows
+                    if (columnIndex < 0) {
+                        fireTableChanged(new TableModelEvent(DataModelToTableModelAdapter.this, 
+                                rowIndex, e.getLastRowIndex()));
+                    } else {
+                        fireTableChanged(new TableModelEvent(DataModelToTableModelAdapter.this, 
+                                rowIndex, e.getLastRowIndex(), columnIndex));
+                    }
+                } else if (rowIndex < 0) {
                     if (columnIndex < 0) {
                         //JW: we are firing too many structure changed...
                         // leads to forgetting all column settings...
@@ -23,80 +23,286 @@ package org.jdesktop.binding.swingx.adapter;
 
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.RowSet;
 import javax.swing.table.AbstractTableModel;
 
 /**
- * Placeholder for future RowSet TableModel adapter to enable
- * easy connectivity to JDBC RowSet functionality. For more details see the
+ * TableModel adapter to enable easy connectivity to JDBC RowSet 
+ * functionality. For more details see the
  * <a href="http://www.jcp.org/en/jsr/detail?id=114">JSR 114</a>.
- * Note: This class is not yet fully functional.
+ * Note: This class is not yet fully functional, it's read-only.<p>
+ * 
+ * The rows are read from the rowset a page at a time and kept in a 
+ * bounded LRU cache, so rendering a table doesn't move the cursor
+ * for every cell. Whenever access moves on to another page, the next page 
+ * in the direction of scrolling is prefetched on a background thread 
+ * shared by all adapters. Cache hits don't touch the rowset, a miss on 
+ * the page being prefetched waits for it instead of reading it again. 
+ * The rowset itself is accessed while synchronized on it. Any RowSet implementation can be used, f.i. an in-memory 
+ * CachedRowSet. 
  *
  * @author Amy Fowler
  * @version 1.0
  */
 public class RowSetAdapter extends AbstractTableModel {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGES = 20;
+    /** the maximal number of queued prefetches of all adapters. */
+    private static final int MAX_QUEUED_PREFETCHES = 8;
+    /** the shared prefetching thread, lazily created. */
+    private static ExecutorService prefetchExecutor;
+    
     private RowSet rowset;
     private ResultSetMetaData metaData;
+    private int columnCount;
+    private Class[] columnClasses;
+    /** written on the EDT, read by the prefetch thread. */
+    private volatile int rowCount;
+    
+    private final int pageSize;
+    private final int maxPages;
+    /** the cached pages by page index, in access order. Guarded by itself. */
+    private final Map<Integer, Object[][]> pages;
+    /** the pages currently prefetched. Guarded by pages. */
+    private final Set<Integer> prefetching = new HashSet<Integer>();
+    /** the page being read by the prefetcher, -1 if none. Guarded by pages. */
+    private int readingPage = -1;
+    /** 
+     * incremented by refresh, pages read in an older generation are 
+     * not cached. Guarded by pages.
+     */
+    private int generation;
+    /** the page of the last access, used to guess the scroll direction. */
+    private int lastPage = -1;
 
     /**
-     * Note: This class is not yet functional, but will be completed
-     * in JDNC Milestone5.
+     * Creates a table model adapter which binds to the specified 
+     * rowset, using the default page size and cache size.
      *
-     * Creates a table model adapter which binds to the specified tabular
-     * data model.
+     * @param rowset RowSet object containing the tabular data
+     * @throws NullPointerException if rowset is null
+     * @throws SQLException
+     */
+    public RowSetAdapter(RowSet rowset) throws java.sql.SQLException{
+        this(rowset, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * Creates a table model adapter which binds to the specified 
+     * rowset. 
      *
      * @param rowset RowSet object containing the tabular data
+     * @param pageSize the number of rows read at once
+     * @param maxPages the maximal number of pages kept in the cache
      * @throws NullPointerException if rowset is null
+     * @throws IllegalArgumentException if pageSize or maxPages &lt; 1
      * @throws SQLException
      */
-    private RowSetAdapter(RowSet rowset) throws java.sql.SQLException{
+    public RowSetAdapter(RowSet rowset, int pageSize, final int maxPages) 
+        throws java.sql.SQLException{
         if (rowset == null) {
             throw new NullPointerException("rowset cannot be null");
         }
+        if ((pageSize < 1) || (maxPages < 1)) {
+            throw new IllegalArgumentException("pageSize and maxPages must be positive");
+        }
         this.rowset = rowset;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                return size() > maxPages;
+            }
+        };
         this.metaData = rowset.getMetaData();
+        columnCount = metaData.getColumnCount();
+        columnClasses = new Class[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            try {
+                columnClasses[i] = Class.forName(metaData.getColumnClassName(
+                        translateAdapterColumn(i)));
+            } catch (Exception e) {
+
+            }
+        }
+        rowCount = readRowCount();
     }
 
-    public Class getColumnClass(int columnIndex) {
-        Class klass = null;
+    /**
+     * Clears the cached rows and re-reads the row count. Must be called 
+     * after the content of the rowset changed.
+     */
+    public void refresh() {
+        int count = readRowCount();
+        synchronized (pages) {
+            rowCount = count;
+            pages.clear();
+            generation++;
+            lastPage = -1;
+        }
+        fireTableDataChanged();
+    }
+    
+    private int readRowCount() {
         try {
-            klass = Class.forName(metaData.getColumnClassName(
-                translateAdapterColumn(columnIndex)));
-        } catch (Exception e) {
-
+            synchronized(rowset) {
+                return rowset.last() ? translateDataRow(rowset.getRow()) + 1 : 0;
+            }
+        } catch (SQLException e) {
+            return 0;
         }
-        return klass;
+    }
+
+    public Class getColumnClass(int columnIndex) {
+        return columnClasses[columnIndex];
     }
 
     public int getRowCount() {
-        //REMIND(aim): awk! size() doesn't exist in 1.4.2....
-        //return rowset.size();
-        return 0;
+        return rowCount;
     }
 
     public int getColumnCount() {
-        int columnCount = 0;
-        try {
-            columnCount = metaData.getColumnCount();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
         return columnCount;
     }
 
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Object value = null;
+        Object[][] page = getPage(rowIndex / pageSize);
+        int row = rowIndex % pageSize;
+        return (page != null) && (row < page.length) ? page[row][columnIndex] : null;
+    }
+
+    /**
+     * Returns the page with the given index, reading it if not cached. 
+     * Schedules the prefetch of the next page in scroll direction if the
+     * access moved on to another page.
+     */
+    private Object[][] getPage(int pageIndex) {
+        int next = -1;
+        Object[][] page;
+        int readGeneration;
+        synchronized (pages) {
+            if (pageIndex != lastPage) {
+                next = pageIndex >= lastPage ? pageIndex + 1 : pageIndex - 1;
+                lastPage = pageIndex;
+            }
+            page = pages.get(pageIndex);
+            try {
+                while ((page == null) && (readingPage == pageIndex)) {
+                    pages.wait();
+                    page = pages.get(pageIndex);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            readGeneration = generation;
+        }
+        if (page == null) {
+            page = readPage(pageIndex);
+            if (page != null) {
+                synchronized (pages) {
+                    if (readGeneration == generation) {
+                        pages.put(pageIndex, page);
+                    }
+                }
+            }
+        }
+        if (next >= 0) {
+            prefetch(next);
+        }
+        return page;
+    }
+
+    /**
+     * Queues the page for reading on the prefetch thread, if it is valid 
+     * and neither cached nor already queued. Drops the prefetch if the 
+     * queue is full.
+     */
+    private void prefetch(final int pageIndex) {
+        if ((pageIndex * pageSize >= rowCount) || (maxPages < 2)) return;
+        synchronized (pages) {
+            if (pages.containsKey(pageIndex) || !prefetching.add(pageIndex)) return;
+        }
+        try {
+            getPrefetchExecutor().execute(new Runnable() {
+                public void run() {
+                    int readGeneration;
+                    synchronized (pages) {
+                        if (pages.containsKey(pageIndex)) {
+                            prefetching.remove(pageIndex);
+                            return;
+                        }
+                        readingPage = pageIndex;
+                        readGeneration = generation;
+                    }
+                    Object[][] page = readPage(pageIndex);
+                    synchronized (pages) {
+                        prefetching.remove(pageIndex);
+                        readingPage = -1;
+                        if ((page != null) && (readGeneration == generation)
+                                && !pages.containsKey(pageIndex)) {
+                            pages.put(pageIndex, page);
+                        }
+                        pages.notifyAll();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (pages) {
+                prefetching.remove(pageIndex);
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(MAX_QUEUED_PREFETCHES),
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "RowSetAdapter-prefetch");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return prefetchExecutor;
+    }
+
+    /**
+     * Reads the rows of the given page from the rowset.
+     * 
+     * @return the rows of the page, or null if the rowset could not be read.
+     */
+    protected Object[][] readPage(int pageIndex) {
+        int first = pageIndex * pageSize;
+        int count = Math.min(pageSize, rowCount - first);
+        if (count <= 0) return null;
+        Object[][] page = new Object[count][columnCount];
         try {
             synchronized(rowset) {
-                rowset.absolute(translateAdapterRow(rowIndex));
-                value = rowset.getObject(translateAdapterColumn(columnIndex));
+                if (!rowset.absolute(translateAdapterRow(first))) return null;
+                for (int row = 0; row < count; row++) {
+                    for (int column = 0; column < columnCount; column++) {
+                        page[row][column] = rowset.getObject(translateAdapterColumn(column));
+                    }
+                    if ((row < count - 1) && !rowset.next()) break;
+                }
             }
         } catch (Exception e) {
-
+            return null;
         }
-        return value;
+        return page;
     }
 
     public boolean isCellEditable(int rowIndex, int columnIndex) {
@@ -620,14 +620,9 @@ public class DataRow {
             if ( table.isIdentityComparisonEnabled()) {
                 return newValue == baseValue;
             } else {
-                Comparator comp = null;
-                if ( table.hasColumnComparator(col)) {
-                    comp = table.getColumnComparator(col);
-                } else {
-                    // this returns a default .equals() comparator if none
-                    // is assigned to the column type
-                    comp = table.getClassComparator(col.getType());
-                }
+                // falls back to the comparator of the column type, which
+                // defaults to an .equals() comparator
+                Comparator comp = table.getColumnComparator(col);
                 return comp.compare(baseValue, newValue) == 0;
             }
         }
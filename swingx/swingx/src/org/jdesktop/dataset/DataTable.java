@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -165,6 +166,15 @@ public class DataTable {
      */
     protected List<DataRow> rows = new ArrayList<DataRow>();
     
+    /**
+     * Maps the DataRows to their index in rows, used by {@link #indexOfRow(DataRow)}.
+     * Rows appended at the end are added lazily, starting at indexedRowCount. As
+     * subclasses may change rows directly, every entry is checked against rows 
+     * before it is used, and the map is rebuilt if it turns out to be stale.
+     */
+    private Map<DataRow,Integer> rowIndices = new IdentityHashMap<DataRow,Integer>();
+    private int indexedRowCount;
+    
     /**
      * Every DataTable contains a list of selectors, which manage tracking
      * "selected" state in a DataTable. This is necessary for proper handling
@@ -737,7 +747,8 @@ public class DataTable {
     public void discardRow(int rowIndex) {
         assert rowIndex > 0 && rowIndex < rows.size();
         DataRow row = rows.remove(rowIndex);
-        fireDataTableChanged(TableChangeEvent.newRowDiscardedEvent(this, row));
+        invalidateRowIndices();
+        fireDataTableChanged(TableChangeEvent.newRowDiscardedEvent(this, row, rowIndex));
     }
     
     /**
@@ -810,6 +821,7 @@ public class DataTable {
      */
     public void clear() {
         rows.clear();
+        invalidateRowIndices();
         //clear out all of the DataSelectors
         for (DataSelector sel : selectors.values()) {
             sel.setRowIndices(new int[0]);
@@ -975,10 +987,55 @@ public class DataTable {
     }
     
     /**
-     * Internal method that returns the int index of the given DataRow. This is
-     * currently only used for constructing toString on DataRow, and testing.
+     * Returns the int index of the given DataRow, or -1 if the row is not
+     * contained in this table. The indices are cached, so this is a constant
+     * time lookup for rows which are appended or loaded.
+     * @param row the row to look up
+     * @return the index of the row in this table, or -1 if not found.
+     */
+    public int indexOfRow(DataRow row) {
+        if (indexedRowCount > rows.size()) {
+            // rows have been removed behind our back
+            invalidateRowIndices();
+        }
+        Integer index = indexRows(row);
+        if (index == null) {
+            // all rows are indexed
+            return -1;
+        }
+        if (index < rows.size() && rows.get(index) == row) {
+            return index;
+        }
+        // stale, rows has been modified behind our back
+        invalidateRowIndices();
+        index = indexRows(row);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Looks up the cached index of the row, indexing the rows appended 
+     * since the last lookup if it is not cached. 
+     * 
+     * @return the cached index or null if the row is not indexed.
+     */
+    private Integer indexRows(DataRow row) {
+        Integer index = rowIndices.get(row);
+        if (index == null) {
+            for (int i = indexedRowCount; i < rows.size(); i++) {
+                rowIndices.put(rows.get(i), i);
+            }
+            indexedRowCount = rows.size();
+            index = rowIndices.get(row);
+        }
+        return index;
+    }
+    
+    /**
+     * Clears the cached row indices, must be called whenever rows are
+     * removed or moved. Appending rows doesn't require a call.
      */
-    protected int indexOfRow(DataRow row) {
-        return rows.indexOf(row);
+    protected void invalidateRowIndices() {
+        rowIndices.clear();
+        indexedRowCount = 0;
     }
 }
\ No newline at end of file
@@ -24,6 +24,8 @@ package org.jdesktop.dataset.adapter;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.swing.SwingUtilities;
+
 import org.jdesktop.binding.TabularDataModel;
 import org.jdesktop.binding.TabularValueChangeEvent;
 import org.jdesktop.binding.TabularValueChangeListener;
@@ -34,8 +36,17 @@ import org.jdesktop.binding.metadata.Validator;
 import org.jdesktop.dataset.DataRow;
 import org.jdesktop.dataset.DataTable;
 import org.jdesktop.dataset.event.DataTableListener;
+import org.jdesktop.dataset.event.RowChangeEvent;
+import org.jdesktop.dataset.event.TableChangeEvent;
 
 /**
+ * Adapts a DataTable to the TabularDataModel interface. 
+ * 
+ * Changes of the DataTable are reported as precisely as possible: rows 
+ * added, discarded or changed are reported by index. Rows which are
+ * added while the table is loading are collected and reported as one 
+ * range when the load completes (or, at the latest, after the current
+ * batch of events on the event dispatch thread).
  *
  * @author rbair
  */
@@ -45,20 +56,27 @@ public class TabularDataModelAdapter implements TabularDataModel {
     private List<Validator> validators = new ArrayList<Validator>();
     private List<ValueChangeListener> listeners = new ArrayList<ValueChangeListener>();
     private List<TabularValueChangeListener> tabularListeners = new ArrayList<TabularValueChangeListener>();
- 
+    
+    /** the number of rows the listeners know about. */
+    private int reportedRowCount;
+    /** true between LOAD_STARTED and LOAD_COMPLETE. */
+    private boolean loading;
+    /** true if a flush of the rows added while loading is pending. */
+    private boolean flushScheduled;
     
     /** Creates a new instance of TabularDataModelAdapter */
     public TabularDataModelAdapter(DataTable table) {
         assert table != null;
         this.table = table;
         mdp = new MetaDataProviderAdapter(table);
+        reportedRowCount = table.getRowCount();
         table.addDataTableListener(new DataTableListener() {
-            public void rowChanged(org.jdesktop.dataset.event.RowChangeEvent evt) {
-                fireRowChanged((DataRow) evt.getSource());
+            public void rowChanged(RowChangeEvent evt) {
+                fireRowChanged(evt);
             }
 
-            public void tableChanged(org.jdesktop.dataset.event.TableChangeEvent evt) {
-                fireTableChanged();
+            public void tableChanged(TableChangeEvent evt) {
+                fireTableChanged(evt);
             }
             
         });
@@ -162,24 +180,145 @@ public class TabularDataModelAdapter implements TabularDataModel {
 		}
 	}
 
+    /**
+     * Reports a change of the given row. Rows which are not yet reported
+     * as inserted are ignored, they are complete when reported.
+     */
     protected void fireRowChanged(DataRow row) {
-       // fireAllFieldsChanged();
-        int rowIndex = table.getRows().indexOf(row);
-        fireTabularValueChanged(rowIndex, null);
+        fireRowChanged(row, null);
     }
 
+    protected void fireRowChanged(RowChangeEvent evt) {
+        String fieldName = null;
+        if ((evt.getEventType() == RowChangeEvent.EventType.CELL_CHANGED) 
+                && (evt.getColumnAffected() != null)) {
+            fieldName = evt.getColumnAffected().getName();
+        }
+        fireRowChanged((DataRow) evt.getSource(), fieldName);
+    }
+    
+    private void fireRowChanged(DataRow row, String fieldName) {
+        int rowIndex = table.indexOfRow(row);
+        if ((rowIndex >= 0) && (rowIndex < reportedRowCount)) {
+            fireTabularValueChanged(rowIndex, fieldName);
+        }
+    }
 
     protected void fireTableChanged() {
        // fireAllFieldsChanged();
+        reportedRowCount = table.getRowCount();
         fireTabularValueChanged(-1, null);
     }
 
+    /**
+     * Maps the TableChangeEvent to the appropriate TabularValueChangeEvent.
+     */
+    protected void fireTableChanged(TableChangeEvent evt) {
+        switch (evt.getEventType()) {
+        case LOAD_STARTED:
+            loading = true;
+            break;
+        case ROW_ADDED:
+            int rowIndex = table.indexOfRow(evt.getRowAffected());
+            if ((rowIndex >= 0) && (rowIndex < reportedRowCount)) {
+                // DataTable re-fires ROW_ADDED on property changes of the row
+                fireTabularValueChanged(rowIndex, null);
+            } else if (loading) {
+                scheduleRowsInserted();
+            } else {
+                fireRowsInserted();
+            }
+            break;
+        case ROW_DELETED:
+            // the row is only marked as deleted
+            fireRowChanged(evt.getRowAffected());
+            break;
+        case TABLE_CLEARED:
+            int oldCount = reportedRowCount;
+            reportedRowCount = 0;
+            if (oldCount > 0) {
+                fireTabularValueChanged(0, oldCount - 1, null, 
+                        TabularValueChangeEvent.DELETE);
+            }
+            fireRowsInserted();
+            break;
+        case ROW_DISCARDED:
+            int discarded = evt.getRowIndex();
+            if (discarded < 0) {
+                fireTableChanged();
+            } else if (discarded < reportedRowCount) {
+                reportedRowCount--;
+                fireTabularValueChanged(discarded, discarded, null,
+                        TabularValueChangeEvent.DELETE);
+            } 
+            // rows appended before the discard
+            fireRowsInserted();
+            break;
+        case LOAD_COMPLETE:
+            loading = false;
+            fireRowsInserted();
+            break;
+        case SAVE_STARTED:
+            break;
+        case SAVE_COMPLETE:
+            // the status of the saved rows is changed silently
+            fireRowsInserted();
+            fireTabularValueChanged(0, TabularValueChangeEvent.ALL_ROWS, null,
+                    TabularValueChangeEvent.UPDATE);
+            break;
+        default:
+            // columns added or removed
+            fireTableChanged();
+        }
+    }
+
+    /**
+     * Reports the rows appended since the last report as one
+     * inserted range. 
+     */
+    protected void fireRowsInserted() {
+        int rowCount = table.getRowCount();
+        if (rowCount > reportedRowCount) {
+            int first = reportedRowCount;
+            reportedRowCount = rowCount;
+            fireTabularValueChanged(first, rowCount - 1, null, 
+                    TabularValueChangeEvent.INSERT);
+        } else if (rowCount < reportedRowCount) {
+            // rows removed without notification
+            fireTableChanged();
+        }
+    }
+    
+    /**
+     * Makes sure that rows added while loading are reported even if
+     * the load never completes.
+     */
+    private void scheduleRowsInserted() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                flushScheduled = false;
+                fireRowsInserted();
+            }
+        });
+    }
+    
     protected void fireTabularValueChanged(int rowIndex, String fieldName) {
         TabularValueChangeEvent e = new TabularValueChangeEvent(this, rowIndex, fieldName);
+        fireTabularValueChanged(e);
+    }
+
+    protected void fireTabularValueChanged(int firstRow, int lastRow, String fieldName, int type) {
+        TabularValueChangeEvent e = new TabularValueChangeEvent(this, firstRow, 
+                lastRow, fieldName, type);
+        fireTabularValueChanged(e);
+    }
+    
+    private void fireTabularValueChanged(TabularValueChangeEvent e) {
         for (TabularValueChangeListener l: tabularListeners) {
             l.tabularValueChanged(e);
         }
-        
     }
     protected void fireAllFieldsChanged() {
         for (String fieldName : mdp.getFieldNames()) {
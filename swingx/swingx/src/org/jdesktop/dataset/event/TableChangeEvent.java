@@ -61,6 +61,7 @@ public class TableChangeEvent extends EventObject {
     private EventType eventType;
     private DataColumn columnAffected;
     private DataRow rowAffected;
+    private int rowIndex = -1;
     
     private TableChangeEvent(DataTable source) { super(source); }
     
@@ -122,6 +123,13 @@ public class TableChangeEvent extends EventObject {
         return new TableChangeEvent(source, EventType.ROW_DISCARDED, row);
     }
 
+    /** Creates a ROW_DISCARDED event which remembers the index the row had before it was removed. */
+    public static TableChangeEvent newRowDiscardedEvent(DataTable source, DataRow row, int rowIndex) { 
+        TableChangeEvent evt = new TableChangeEvent(source, EventType.ROW_DISCARDED, row);
+        evt.rowIndex = rowIndex;
+        return evt;
+    }
+
     /** Returns the EventType enumerated value for this event, never null.  */
     public TableChangeEvent.EventType getEventType() {
         return eventType;
@@ -132,6 +140,14 @@ public class TableChangeEvent extends EventObject {
         return rowAffected;
     }
     
+    /** 
+     * Returns the index of the DataRow affected by this event, if known. For ROW_DISCARDED
+     * events this is the index the row had before it was removed. Returns -1 if unknown.
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+    
     /** Returns the DataColumn affected by this event, or null if no column was involved. */
     public DataColumn getColumnAffected() {
         return columnAffected;
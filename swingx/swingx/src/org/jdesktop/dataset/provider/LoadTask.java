@@ -30,6 +30,16 @@ import org.jdesktop.dataset.DataTable;
 
 
 /**
+ * Reads data on a background thread and loads it into DataTables on the
+ * event dispatch thread.
+ * <p>
+ * The queued LoadItems are applied in time slices: each slice on the EDT
+ * passes items to <code>loadData</code> until the slice budget is spent,
+ * then reschedules itself, so that a fast reader can't block the EDT for
+ * the whole load. An item is the unit of work, readers should schedule 
+ * items of a moderate size. If the queue holds more than the maximum queue 
+ * size items, <code>scheduleLoad</code> blocks the reader until the EDT has 
+ * caught up.
  *
  * @author rbair
  */
@@ -59,9 +69,81 @@ public abstract class LoadTask extends AbstractTask {
 
     private boolean loadOnEDT = true;
 
+    /** the time budget of one EDT slice in milliseconds, <= 0 for unbounded. */
+    private int sliceBudget = 8;
+
+    /** the number of queued items which blocks the reader, <= 0 for unbounded. */
+    private int maxQueueSize = 100;
+
+    // metrics of the current or last load, all times in nanoseconds
+    private volatile long loadTime;
+    private volatile long maxSliceTime;
+    private volatile int sliceCount;
+    private volatile long readerWaitTime;
+
     public void setLoadOnEDT(boolean val) {
         loadOnEDT = val;
     }
+
+    /**
+     * Sets the time budget of one slice of loading on the EDT. Once spent,
+     * the remaining items are loaded in a later slice. The budget is checked 
+     * between items, so one slice loads at least one item.
+     * 
+     * @param millis the budget in milliseconds, 0 or less to load all
+     *   queued items in one go.
+     */
+    public void setSliceBudget(int millis) {
+        sliceBudget = millis;
+    }
+
+    public int getSliceBudget() {
+        return sliceBudget;
+    }
+
+    /**
+     * Sets the number of queued items at which <code>scheduleLoad</code>
+     * blocks the reader thread until items are loaded. 
+     * 
+     * @param size the maximum queue size, 0 or less for unbounded.
+     */
+    public void setMaxQueueSize(int size) {
+        maxQueueSize = size;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * @return the time spent in loadData during the current or last load,
+     *   in milliseconds.
+     */
+    public long getLoadTime() {
+        return loadTime / 1000000;
+    }
+
+    /**
+     * @return the longest slice of the current or last load, in milliseconds.
+     */
+    public long getMaxSliceTime() {
+        return maxSliceTime / 1000000;
+    }
+
+    /**
+     * @return the number of slices of the current or last load.
+     */
+    public int getSliceCount() {
+        return sliceCount;
+    }
+
+    /**
+     * @return the time the reader was blocked by a full queue during the
+     *   current or last load, in milliseconds.
+     */
+    public long getReaderWaitTime() {
+        return readerWaitTime / 1000000;
+    }
     
     /**
      * Creates a new LoadTask. The param is the array of DataTables to be
@@ -75,6 +157,10 @@ public abstract class LoadTask extends AbstractTask {
      * @inheritDoc
      */
     public void run() {
+        loadTime = 0;
+        maxSliceTime = 0;
+        sliceCount = 0;
+        readerWaitTime = 0;
         setIndeterminate(true);
         try {
             //TODO If meta-data of any kind needs to be loaded, this is the place to do it
@@ -141,7 +227,10 @@ public abstract class LoadTask extends AbstractTask {
      * <code>scheduleLoad</code> multiple times before <code>loadData</code>
      * has the opportunity to execute on the event dispatch thread, those
      * requests will be collapsed, resulting in only a single call to
-     * <code>loadData</code>.
+     * <code>loadData</code> if the slice budget is unbounded. 
+     * <p>
+     * Blocks the calling thread while the queue is full, unless it is the 
+     * event dispatch thread.
      * 
      * @see #readData
      * @see #loadData
@@ -149,6 +238,7 @@ public abstract class LoadTask extends AbstractTask {
     protected void scheduleLoad(LoadItem item) {
         synchronized (loadQueue) {
             if (item != null) {
+                waitForQueueSpace();
                 loadQueue.addLast(item);
             }
             if (!loadNotifier.isPending()) {
@@ -162,6 +252,26 @@ public abstract class LoadTask extends AbstractTask {
         }
     }
 
+    /**
+     * Waits until the queue has space. PRE: holds the loadQueue lock.
+     * The queue is never full without a pending notifier, which
+     * notifies after removing items.
+     */
+    private void waitForQueueSpace() {
+        if (!loadOnEDT || (maxQueueSize <= 0) 
+                || SwingUtilities.isEventDispatchThread()) return;
+        long start = System.nanoTime();
+        try {
+            while (loadQueue.size() >= maxQueueSize) {
+                loadQueue.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            readerWaitTime += System.nanoTime() - start;
+        }
+    }
+
     /**
      * Same as <code>scheduleLoad(LoadItem)</code>, except that this method
      * will simply schedule a load operation for any remaining items in the
@@ -230,15 +340,53 @@ public abstract class LoadTask extends AbstractTask {
             return pending;
         }
 
+        /**
+         * Loads queued items until the queue is empty or, if sliced, the 
+         * budget is spent. The queue is not locked while loading.
+         */
         public void run() {
+            long start = System.nanoTime();
+            long budget = loadOnEDT ? sliceBudget * 1000000L : 0;
+            try {
+                LoadItem[] items;
+                while ((items = takeItems(start, budget)) != null) {
+                    loadData(items);
+                }
+            } finally {
+                long time = System.nanoTime() - start;
+                loadTime += time;
+                maxSliceTime = Math.max(maxSliceTime, time);
+                sliceCount++;
+                synchronized (loadQueue) {
+                    if (loadQueue.isEmpty()) {
+                        setPending(false);
+                    } else {
+                        // budget spent or loadData failed: keep pending 
+                        // and continue in the next slice
+                        SwingUtilities.invokeLater(this);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the next items to load, all of the queue if unbounded,
+         *   or null if empty or the budget is spent.
+         */
+        private LoadItem[] takeItems(long start, long budget) {
             synchronized (loadQueue) {
-                if (loadQueue.size() > 0) {
-                    LoadItem[] items = (LoadItem[]) loadQueue
+                if (loadQueue.isEmpty()) return null;
+                LoadItem[] items;
+                if (budget <= 0) {
+                    items = (LoadItem[]) loadQueue
                             .toArray(new LoadItem[loadQueue.size()]);
                     loadQueue.clear();
-                    loadData(items);
+                } else {
+                    if (System.nanoTime() - start >= budget) return null;
+                    items = new LoadItem[] {(LoadItem) loadQueue.removeFirst()};
                 }
-                setPending(false);
+                loadQueue.notifyAll();
+                return items;
             }
         }
     }
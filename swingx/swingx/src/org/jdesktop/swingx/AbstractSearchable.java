@@ -20,6 +20,8 @@
  */
 package org.jdesktop.swingx;
 
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,6 +52,35 @@ public abstract class AbstractSearchable implements Searchable {
     /** key for client property to use SearchHighlighter as match marker. */
     public static final String MATCH_HIGHLIGHTER = "match.highlighter";
 
+    private PropertyChangeSupport changeSupport;
+
+    /**
+     * Adds a listener to be notified of changes of the bound properties
+     * of this searchable, if any. Notification happens on the EDT.
+     * 
+     * @param l the listener to add
+     */
+    public void addPropertyChangeListener(PropertyChangeListener l) {
+        if (changeSupport == null) {
+            changeSupport = new PropertyChangeSupport(this);
+        }
+        changeSupport.addPropertyChangeListener(l);
+    }
+
+    /**
+     * 
+     * @param l the listener to remove
+     */
+    public void removePropertyChangeListener(PropertyChangeListener l) {
+        if (changeSupport == null) return;
+        changeSupport.removePropertyChangeListener(l);
+    }
+
+    protected void firePropertyChange(String property, Object oldValue, Object newValue) {
+        if (changeSupport == null) return;
+        changeSupport.firePropertyChange(property, oldValue, newValue);
+    }
+
     /**
      * Performs a forward search starting at the beginning 
      * across the Searchable using String that represents a
@@ -29,16 +29,15 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.LayoutManager;
-import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 
 import javax.swing.AbstractAction;
 import javax.swing.JComponent;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer;
+
+import org.jdesktop.swingx.util.Animator;
 
 /**
  * <code>JXCollapsiblePane</code> provides a component which can collapse or
@@ -119,14 +118,14 @@ public class JXCollapsiblePane extends JPanel {
   private boolean collapsed = false;
 
   /**
-   * Timer used for doing the transparency animation (fade-in)
+   * Drives the slide and fade animation
    */
-  private Timer animateTimer;
-  private AnimationListener animator;
+  private Animator animator;
+  private AnimationTarget animationTarget;
+  private int animationDuration = 300;
   private int currentHeight = -1;
   private WrapperContainer wrapper;
   private boolean useAnimation = true;
-  private AnimationParams animationParams;
 
   /**
    * Constructs a new JXCollapsiblePane with a {@link JPanel} as content pane
@@ -140,8 +139,8 @@ public class JXCollapsiblePane extends JPanel {
     panel.setLayout(new VerticalLayout(2));
     setContentPane(panel);
 
-    animator = new AnimationListener();
-    setAnimationParams(new AnimationParams(30, 8, 0.01f, 1.0f));
+    animationTarget = new AnimationTarget();
+    animator = new Animator(animationDuration, 30, animationTarget);
     
     // add an action to automatically toggle the state of the pane
     getActionMap().put("toggle", new AbstractAction("Toggle") {
@@ -249,6 +248,51 @@ public class JXCollapsiblePane extends JPanel {
     return useAnimation;
   }
 
+  /**
+   * Sets the time in milliseconds the collapse/expand animation takes. The
+   * animation is time based: on a busy machine fewer frames are shown, the
+   * animation does not take longer.
+   * 
+   * @param duration the duration in milliseconds, must be &gt; 0
+   * @throws IllegalArgumentException if duration is &lt;= 0
+   * @javabean.property bound="true"
+   */
+  public void setAnimationDuration(int duration) {
+    if (duration <= 0) {
+      throw new IllegalArgumentException("duration must be > 0");
+    }
+    if (duration != animationDuration) {
+      int old = animationDuration;
+      animator.stop();
+      animationDuration = duration;
+      animator = new Animator(animationDuration, 30, animationTarget);
+      firePropertyChange("animationDuration", old, animationDuration);
+    }
+  }
+
+  /**
+   * @return the time in milliseconds the collapse/expand animation takes
+   * @see #setAnimationDuration(int)
+   */
+  public int getAnimationDuration() {
+    return animationDuration;
+  }
+
+  /**
+   * @return the number of frames shown by the current or last animation
+   */
+  public int getAnimationFrameCount() {
+    return animator.getFrameCount();
+  }
+
+  /**
+   * @return the number of frames the current or last animation was too late
+   *         to show, a high count means the machine could not keep up
+   */
+  public int getDroppedFrameCount() {
+    return animator.getDroppedFrameCount();
+  }
+
   /**
    * @return true if the pane is collapsed, false if expanded
    */
@@ -281,17 +325,11 @@ public class JXCollapsiblePane extends JPanel {
     if (collapsed != val) {
       collapsed = val;
       if (isAnimated()) {
-        if (collapsed) {
-          setAnimationParams(new AnimationParams(30, Math.max(8, wrapper
-            .getHeight() / 10), 1.0f, 0.01f));
-          animator.reinit(wrapper.getHeight(), 0);
-          animateTimer.start();
-        } else {
-          setAnimationParams(new AnimationParams(30, Math.max(8,
-            getContentPane().getPreferredSize().height / 10), 0.01f, 1.0f));
-          animator.reinit(wrapper.getHeight(), getContentPane()
-            .getPreferredSize().height);
-          animateTimer.start();
+        // starting again while running reverses from the current height
+        animator.start();
+        if (!isShowing()) {
+          // nothing to see, go to the final state right away
+          animator.stop();
         }
       } else {
         wrapper.c.setVisible(!collapsed);
@@ -341,24 +379,6 @@ public class JXCollapsiblePane extends JPanel {
     return dim;
   }
 
-  /**
-   * Sets the parameters controlling the animation
-   * 
-   * @param params
-   * @throws IllegalArgumentException
-   *           if params is null
-   */
-  private void setAnimationParams(AnimationParams params) {
-    if (params == null) { throw new IllegalArgumentException(
-      "params can't be null"); }
-    if (animateTimer != null) {
-      animateTimer.stop();
-    }
-    animationParams = params;
-    animateTimer = new Timer(animationParams.waitTime, animator);
-    animateTimer.setInitialDelay(0);
-  }
-  
   /**
    * Tagging interface for containers in a JXCollapsiblePane hierarchy who needs
    * to be revalidated (invalidate/validate/repaint) when the pane is expanding
@@ -371,141 +391,79 @@ public class JXCollapsiblePane extends JPanel {
   }
 
   /**
-   * Parameters controlling the animations
-   */
-  private static class AnimationParams {
-    final int waitTime;
-    final int deltaY;
-    final float alphaStart;
-    final float alphaEnd;
-
-    /**
-     * @param waitTime
-     *          the amount of time in milliseconds to wait between calls to the
-     *          animation thread
-     * @param deltaY
-     *          the delta in the Y direction to inc/dec the size of the scroll
-     *          up by
-     * @param alphaStart
-     *          the starting alpha transparency level
-     * @param alphaEnd
-     *          the ending alpha transparency level
-     */
-    public AnimationParams(int waitTime, int deltaY, float alphaStart,
-      float alphaEnd) {
-      this.waitTime = waitTime;
-      this.deltaY = deltaY;
-      this.alphaStart = alphaStart;
-      this.alphaEnd = alphaEnd;
-    }
-  }
-
-  /**
-   * This class actual provides the animation support for scrolling up/down this
-   * component. This listener is called whenever the animateTimer fires off. It
-   * fires off in response to scroll up/down requests. This listener is
-   * responsible for modifying the size of the content container and causing it
-   * to be repainted.
-   * 
-   * @author Richard Bair
+   * Slides and fades the snapshot of the content taken in {@link #begin()}.
+   * The pane is laid out once when expanding starts, so it has its full
+   * height during the animation, and once when the animation ends. The frames
+   * in between only change the visible part of the snapshot and repaint the
+   * wrapper, they never relayout the hierarchy.
    */
-  private final class AnimationListener implements ActionListener {
-    /**
-     * Mutex used to ensure that the startHeight/finalHeight are not changed
-     * during a repaint operation.
-     */
-    private final Object ANIMATION_MUTEX = "Animation Synchronization Mutex";
-    /**
-     * This is the starting height when animating. If > finalHeight, then the
-     * animation is going to be to scroll up the component. If it is < then
-     * finalHeight, then the animation will scroll down the component.
-     */
-    private int startHeight = 0;
-    /**
-     * This is the final height that the content container is going to be when
-     * scrolling is finished.
-     */
-    private int finalHeight = 0;
-    /**
-     * The current alpha setting used during "animation" (fade-in/fade-out)
-     */
-    private float animateAlpha = 1.0f;
-
-    public void actionPerformed(ActionEvent e) {
-      /*
-       * Pre-1) If startHeight == finalHeight, then we're done so stop the timer
-       * 1) Calculate whether we're contracting or expanding. 2) Calculate the
-       * delta (which is either positive or negative, depending on the results
-       * of (1)) 3) Calculate the alpha value 4) Resize the ContentContainer 5)
-       * Revalidate/Repaint the content container
-       */
-      synchronized (ANIMATION_MUTEX) {
-        if (startHeight == finalHeight) {
-          animateTimer.stop();
-          animateAlpha = animationParams.alphaEnd;
-          // keep the content pane hidden when it is collapsed, other it may
-          // still receive focus.
-          if (finalHeight > 0) {
-            wrapper.showContent();   
-            validate();
-            JXCollapsiblePane.this.firePropertyChange(ANIMATION_STATE_KEY, null,
-              "expanded");
-            return;
-          }
+  private final class AnimationTarget implements Animator.Target {
+    private int startHeight;
+    private int finalHeight;
+    private boolean wasOpaque;
+
+    public void begin() {
+      JXCollapsiblePane.this.firePropertyChange(ANIMATION_STATE_KEY, null,
+        "reinit");
+      if (wrapper.c.isVisible()) {
+        startHeight = wrapper.getHeight();
+        wasOpaque = wrapper.isOpaque();
+      } else if (wrapper.visibleHeight >= 0) {
+        // reversed while animating
+        startHeight = wrapper.visibleHeight;
+      } else {
+        startHeight = 0;
+        wasOpaque = wrapper.isOpaque();
+      }
+      if (collapsed) {
+        finalHeight = 0;
+      } else {
+        finalHeight = getContentPane().getPreferredSize().height;
+        if (currentHeight != -1) {
+          currentHeight = -1;
+          validate();
         }
+      }
+      // snapshot the content once, after the layout above. When reversing
+      // the snapshot taken by the interrupted animation is still good.
+      if (wrapper.c.isVisible() || wrapper.visibleHeight < 0
+        || wrapper.img == null) {
+        wrapper.showImage();
+      }
+      wrapper.setOpaque(false);
+      wrapper.visibleHeight = startHeight;
+    }
 
-        final boolean contracting = startHeight > finalHeight;
-        final int delta_y = contracting?-1 * animationParams.deltaY
-          :animationParams.deltaY;
-        int newHeight = wrapper.getHeight() + delta_y;
-        if (contracting) {
-          if (newHeight < finalHeight) {
-            newHeight = finalHeight;
-          }
-        } else {
-          if (newHeight > finalHeight) {
-            newHeight = finalHeight;
-          }
-        }
-        animateAlpha = (float)newHeight
-          / (float)wrapper.c.getPreferredSize().height;
-
-        Rectangle bounds = wrapper.getBounds();
-        int oldHeight = bounds.height;
-        bounds.height = newHeight;
-        wrapper.setBounds(bounds);
-        bounds = getBounds();
-        bounds.height = (bounds.height - oldHeight) + newHeight;
-        currentHeight = bounds.height;
-        setBounds(bounds);
-        startHeight = newHeight;
-        
-        // it happens the animateAlpha goes over the alphaStart/alphaEnd range
-        // this code ensures it stays in bounds. This behavior is seen when
-        // component such as JTextComponents are used in the container.
-        if (contracting) {
-          // alphaStart > animateAlpha > alphaEnd
-          if (animateAlpha < animationParams.alphaEnd) {
-            animateAlpha = animationParams.alphaEnd;
-          }
-          if (animateAlpha > animationParams.alphaStart) {
-            animateAlpha = animationParams.alphaStart;            
-          }
-        } else {
-          // alphaStart < animateAlpha < alphaEnd
-          if (animateAlpha > animationParams.alphaEnd) {
-            animateAlpha = animationParams.alphaEnd;
-          }
-          if (animateAlpha < animationParams.alphaStart) {
-            animateAlpha = animationParams.alphaStart;
-          }
-        }
-        wrapper.alpha = animateAlpha;
+    public void timingEvent(float fraction) {
+      int height = startHeight
+        + Math.round((finalHeight - startHeight) * fraction);
+      wrapper.visibleHeight = height;
+      int fullHeight = wrapper.img != null ? wrapper.img.getHeight()
+        : getContentPane().getPreferredSize().height;
+      float alpha = fullHeight > 0 ? (float)height / fullHeight : 1.0f;
+      wrapper.alpha = Math.max(0.01f, Math.min(1.0f, alpha));
+      wrapper.repaint();
+    }
 
+    public void end() {
+      wrapper.visibleHeight = -1;
+      wrapper.setOpaque(wasOpaque);
+      if (collapsed) {
+        // keep the content pane hidden when it is collapsed, other it may
+        // still receive focus.
+        currentHeight = 0;
+        validate();
+        JXCollapsiblePane.this.firePropertyChange(ANIMATION_STATE_KEY, null,
+          "collapsed");
+      } else {
+        wrapper.alpha = 1.0f;
+        wrapper.showContent();
         validate();
+        JXCollapsiblePane.this.firePropertyChange(ANIMATION_STATE_KEY, null,
+          "expanded");
       }
     }
-      
+
     void validate() {
       Container parent = SwingUtilities.getAncestorOfClass(
         JCollapsiblePaneContainer.class, JXCollapsiblePane.this);
@@ -523,26 +481,6 @@ public class JXCollapsiblePane extends JPanel {
         }
         parent.doLayout();
         parent.repaint();
-      }        
-    }
-
-    /**
-     * Reinitializes the timer for scrolling up/down the component. This method
-     * is properly synchronized, so you may make this call regardless of whether
-     * the timer is currently executing or not.
-     * 
-     * @param startHeight
-     * @param stopHeight
-     */
-    public void reinit(int startHeight, int stopHeight) {
-      synchronized (ANIMATION_MUTEX) {
-        JXCollapsiblePane.this.firePropertyChange(ANIMATION_STATE_KEY, null,
-          "reinit");
-        this.startHeight = startHeight;
-        this.finalHeight = stopHeight;
-        animateAlpha = animationParams.alphaStart;
-        currentHeight = -1;
-        wrapper.showImage();
       }
     }
   }
@@ -551,6 +489,10 @@ public class JXCollapsiblePane extends JPanel {
     private BufferedImage img;
     private Container c;
     float alpha = 1.0f;
+    /**
+     * The height of the snapshot shown while animating, -1 if not animating
+     */
+    int visibleHeight = -1;
 
     public WrapperContainer(Container c) {
       super(new BorderLayout());
@@ -582,10 +524,19 @@ public class JXCollapsiblePane extends JPanel {
         Dimension dim = c.getPreferredSize();
         // width and height must be > 0 to be able to create an image
         if (dim.height > 0) {
-          img = getGraphicsConfiguration().createCompatibleImage(getWidth(),
-            dim.height);
+          // reuse the buffer if the size did not change
+          if (img == null || img.getWidth() != getWidth()
+            || img.getHeight() != dim.height) {
+            img = getGraphicsConfiguration().createCompatibleImage(getWidth(),
+              dim.height);
+          }
           c.setSize(getWidth(), dim.height);
-          c.paint(img.getGraphics());
+          Graphics g = img.getGraphics();
+          try {
+            c.paint(g);
+          } finally {
+            g.dispose();
+          }
         } else {
           img = null;
         }
@@ -604,8 +555,16 @@ public class JXCollapsiblePane extends JPanel {
         // and we paint it only if it has been created and only if we have a
         // valid graphics
         if (g != null && img != null) {
-          // draw the image with y being height - imageHeight
-          g.drawImage(img, 0, getHeight() - img.getHeight(), null);
+          // draw the image with y being height - imageHeight, while animating
+          // clipped to and slid with the visible height
+          int height = visibleHeight >= 0 ? visibleHeight : getHeight();
+          Graphics clipped = g.create();
+          try {
+            clipped.clipRect(0, 0, getWidth(), height);
+            clipped.drawImage(img, 0, height - img.getHeight(), null);
+          } finally {
+            clipped.dispose();
+          }
         }
       }
     }
@@ -74,6 +74,8 @@ public class JXFindBar extends JXFindPanel {
 
     protected JButton findPrevious;
 
+    protected JLabel statusLabel;
+
     public JXFindBar() {
         this(null);
     }
@@ -107,6 +109,24 @@ public class JXFindBar extends JXFindPanel {
         searchField.setForeground(previousForegroundColor);
     }
 
+    /**
+     * here: show the progress in the status label.
+     */
+    @Override
+    protected void showScanProgress(int percent) {
+        if (statusLabel == null) return;
+        statusLabel.setText(percent < 100 ? percent + "%" : "");
+    }
+
+    /**
+     * here: show the count in the status label.
+     */
+    @Override
+    protected void showMatchCount(int count) {
+        if (statusLabel == null) return;
+        statusLabel.setText(count == 1 ? "1 row" : count + " rows");
+    }
+
     @Override
     public void addNotify() {
         super.addNotify();
@@ -162,6 +182,7 @@ public class JXFindBar extends JXFindPanel {
         add(searchField);
         add(findNext);
         add(findPrevious);
+        add(statusLabel);
     }
 
     @Override
@@ -169,6 +190,7 @@ public class JXFindBar extends JXFindPanel {
         super.initComponents();
         findNext = new JButton();
         findPrevious = new JButton();
+        statusLabel = new JLabel();
     }
 
 }
@@ -23,6 +23,8 @@ package org.jdesktop.swingx;
 
 import java.awt.Component;
 import java.awt.event.ActionEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.regex.Pattern;
 
 import javax.swing.AbstractAction;
@@ -52,6 +54,7 @@ public class JXFindPanel extends AbstractPatternPanel {
     protected JCheckBox wrapCheck;
     protected JCheckBox backCheck;
     private boolean initialized;
+    private PropertyChangeListener searchableListener;
 
 
     public JXFindPanel() {
@@ -76,7 +79,15 @@ public class JXFindPanel extends AbstractPatternPanel {
         if (old != null) {
             old.search((Pattern) null);
         }
+        if (old instanceof AbstractSearchable) {
+            ((AbstractSearchable) old).removePropertyChangeListener(
+                    getSearchableListener());
+        }
         this.searchable = searchable;
+        if (searchable instanceof AbstractSearchable) {
+            ((AbstractSearchable) searchable).addPropertyChangeListener(
+                    getSearchableListener());
+        }
         getPatternModel().setFoundIndex(-1);
         firePropertyChange("searchable", old, this.searchable);
     }
@@ -195,6 +206,42 @@ public class JXFindPanel extends AbstractPatternPanel {
         JOptionPane.showMessageDialog(this, "Value not found");
     }
 
+    /**
+     * called from listening to scanProgress property of the searchable.
+     * 
+     * Here: does nothing. 
+     * @param percent the percentage of the searchable scanned for 
+     *   the current pattern
+     */
+    protected void showScanProgress(int percent) {
+        
+    }
+
+    /**
+     * called from listening to matchCount property of the searchable.
+     * 
+     * Here: does nothing. 
+     * @param count the number of matches of the current pattern
+     */
+    protected void showMatchCount(int count) {
+        
+    }
+
+    private PropertyChangeListener getSearchableListener() {
+        if (searchableListener == null) {
+            searchableListener = new PropertyChangeListener() {
+                public void propertyChange(PropertyChangeEvent evt) {
+                    if ("scanProgress".equals(evt.getPropertyName())) {
+                        showScanProgress((Integer) evt.getNewValue());
+                    } else if ("matchCount".equals(evt.getPropertyName())) {
+                        showMatchCount((Integer) evt.getNewValue());
+                    }
+                }
+            };
+        }
+        return searchableListener;
+    }
+
 
     //-------------------------- initial
     
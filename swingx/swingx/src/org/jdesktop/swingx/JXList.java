@@ -735,6 +735,13 @@ public class JXList extends JList {
             return list.getElementAt(row);
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        public int convertRowIndexToModel(int rowIndex) {
+            return list.convertIndexToModel(rowIndex);
+        }
+
         public void setValueAt(Object aValue, int row, int column) {
             throw new UnsupportedOperationException(
                     "Method getFilteredValueAt() not yet implemented.");
@@ -29,9 +29,13 @@ import java.awt.Dimension;
 import java.awt.GradientPaint;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Insets;
 import java.awt.LayoutManager;
 import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 import java.awt.image.BufferedImage;
 import javax.swing.JPanel;
 import javax.swing.RepaintManager;
@@ -129,11 +133,43 @@ public class JXPanel extends JPanel implements Scrollable {
      * The cached gradient image
      */
     private BufferedImage cachedGradient;
+    /**
+     * Indicates whether the content is rendered into a cached image layer
+     * which is composited with the alpha. 
+     */
+    private boolean layerCached;
+    /**
+     * The cached content, if layerCached and translucent.
+     */
+    private BufferedImage layer;
+    /**
+     * The region of the layer which must be rendered again, null if none.
+     */
+    private Rectangle layerDirtyRegion;
+    /**
+     * true while repainting only because of a changed alpha.
+     */
+    private boolean recompositing;
+    /**
+     * The cached result of getEffectiveAlpha, valid if the 
+     * effectiveAlphaGeneration is the current alphaGeneration.
+     */
+    private float effectiveAlpha;
+    private int effectiveAlphaGeneration = -1;
+    /**
+     * Incremented on every change of alpha or inheritAlpha of any JXPanel.
+     */
+    private static int alphaGeneration;
+    /**
+     * The number of JXPanels with an alpha less than 1.
+     */
+    private static int translucentCount;
     
     /** 
      * Creates a new instance of JXPanel
      */
     public JXPanel() {
+        installHierarchyListener();
     }
     
     /**
@@ -141,6 +177,7 @@ public class JXPanel extends JPanel implements Scrollable {
      */
     public JXPanel(boolean isDoubleBuffered) {
         super(isDoubleBuffered);
+        installHierarchyListener();
     }
 
     /**
@@ -148,6 +185,7 @@ public class JXPanel extends JPanel implements Scrollable {
      */
     public JXPanel(LayoutManager layout) {
         super(layout);
+        installHierarchyListener();
     }
 
     /**
@@ -156,6 +194,18 @@ public class JXPanel extends JPanel implements Scrollable {
      */
     public JXPanel(LayoutManager layout, boolean isDoubleBuffered) {
         super(layout, isDoubleBuffered);
+        installHierarchyListener();
+    }
+
+    private void installHierarchyListener() {
+        // ancestors might have changed, forget the effective alpha
+        addHierarchyListener(new HierarchyListener() {
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.PARENT_CHANGED) != 0) {
+                    effectiveAlphaGeneration = -1;
+                }
+            }
+        });
     }
     
     /**
@@ -171,6 +221,13 @@ public class JXPanel extends JPanel implements Scrollable {
             assert alpha >= 0 && alpha <= 1.0;
             float oldAlpha = this.alpha;
             this.alpha = alpha;
+            alphaGeneration++;
+            if ((oldAlpha < 1f) != (alpha < 1f)) {
+                translucentCount += alpha < 1f ? 1 : -1;
+            }
+            if (alpha == 1f) {
+                layer = null;
+            }
             if (alpha > 0f && alpha < 1f) {
                 if (oldAlpha == 1) {
                     //it used to be 1, but now is not. Save the oldOpaque
@@ -187,7 +244,13 @@ public class JXPanel extends JPanel implements Scrollable {
                 }
             }
             firePropertyChange("alpha", oldAlpha, alpha);
-            repaint();
+            // the cached layer, if any, is still valid
+            recompositing = true;
+            try {
+                repaint();
+            } finally {
+                recompositing = false;
+            }
         }
     }
     
@@ -207,6 +270,9 @@ public class JXPanel extends JPanel implements Scrollable {
      */ 
     public float getEffectiveAlpha() {
         if (inheritAlpha) {
+            if (effectiveAlphaGeneration == alphaGeneration) {
+                return effectiveAlpha;
+            }
             float a = alpha;
             Component c = this;
             while ((c = c.getParent()) != null) {
@@ -214,6 +280,8 @@ public class JXPanel extends JPanel implements Scrollable {
                     a = Math.min(((JXPanel)c).getAlpha(), a);
                 }
             }
+            effectiveAlpha = a;
+            effectiveAlphaGeneration = alphaGeneration;
             return a;
         } else {
             return alpha;
@@ -227,9 +295,74 @@ public class JXPanel extends JPanel implements Scrollable {
     public void setInheritAlpha(boolean val) {
         if (inheritAlpha != val) {
             inheritAlpha = val;
+            alphaGeneration++;
             firePropertyChange("inheritAlpha", !inheritAlpha, inheritAlpha);
         }
     }
+
+    /**
+     * Sets whether the content of this panel is rendered into a cached 
+     * image while translucent. Changing the alpha then only composites the 
+     * image again, and changes of the children render only their dirty 
+     * region into the image. This requires that all repaints go through 
+     * the RepaintManagerX, otherwise the visible region is rendered on 
+     * each paint. The default is false.
+     * 
+     * @param cached
+     */
+    public void setLayerCached(boolean cached) {
+        if (layerCached != cached) {
+            layerCached = cached;
+            layer = null;
+            firePropertyChange("layerCached", !cached, cached);
+            repaint();
+        }
+    }
+
+    public boolean isLayerCached() {
+        return layerCached;
+    }
+
+    /**
+     * Marks the given region of the cached layer as changed. Called by the 
+     * RepaintManagerX for dirty regions of this panel and its children.
+     * 
+     * @param x
+     * @param y
+     * @param w
+     * @param h
+     */
+    void addLayerDirtyRegion(int x, int y, int w, int h) {
+        if ((layer == null) || recompositing) return;
+        Rectangle region = new Rectangle(x, y, w, h);
+        if (layerDirtyRegion == null) {
+            layerDirtyRegion = region;
+        } else {
+            layerDirtyRegion.add(region);
+        }
+    }
+
+    /**
+     * Overridden to render the cached layer completely after layout changes.
+     */
+    public void invalidate() {
+        super.invalidate();
+        if (layer != null) {
+            layerDirtyRegion = new Rectangle(0, 0, layer.getWidth(), layer.getHeight());
+        }
+    }
+
+    public void removeNotify() {
+        layer = null;
+        super.removeNotify();
+    }
+
+    /**
+     * @return true if any JXPanel is translucent.
+     */
+    static boolean hasTranslucentPanels() {
+        return translucentCount > 0;
+    }
     
     /* (non-Javadoc)
      * @see javax.swing.Scrollable#getScrollableTracksViewportHeight()
@@ -334,14 +467,62 @@ public class JXPanel extends JPanel implements Scrollable {
      */
     public void paint(Graphics g) {
         Graphics2D g2d = (Graphics2D)g;
-        Composite oldComp = g2d.getComposite();
         float alpha = getEffectiveAlpha();
+        if (layerCached && (alpha < 1f) && (getWidth() > 0) && (getHeight() > 0)) {
+            paintLayer(g2d, alpha);
+            return;
+        }
+        // changes wouldn't be tracked
+        layer = null;
+        Composite oldComp = g2d.getComposite();
         Composite alphaComp = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha);
         g2d.setComposite(alphaComp);
         super.paint(g2d);
         g2d.setComposite(oldComp);
     }
 
+    /**
+     * Renders the dirty region of the cached layer, if any, and 
+     * composites the layer with the given alpha.
+     */
+    private void paintLayer(Graphics2D g2d, float alpha) {
+        if ((layer == null) || (layer.getWidth() != getWidth()) 
+                || (layer.getHeight() != getHeight())) {
+            layer = createLayer();
+            layerDirtyRegion = new Rectangle(0, 0, getWidth(), getHeight());
+        } else if (!(RepaintManager.currentManager(this) instanceof RepaintManagerX)) {
+            // don't know what changed, assume the painted region
+            Rectangle clip = g2d.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            addLayerDirtyRegion(clip.x, clip.y, clip.width, clip.height);
+        }
+        if (layerDirtyRegion != null) {
+            Rectangle dirty = layerDirtyRegion;
+            layerDirtyRegion = null;
+            Graphics2D layerGraphics = layer.createGraphics();
+            layerGraphics.setClip(dirty);
+            layerGraphics.setComposite(AlphaComposite.Clear);
+            layerGraphics.fillRect(dirty.x, dirty.y, dirty.width, dirty.height);
+            layerGraphics.setComposite(AlphaComposite.SrcOver);
+            super.paint(layerGraphics);
+            layerGraphics.dispose();
+        }
+        Composite oldComp = g2d.getComposite();
+        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        g2d.drawImage(layer, 0, 0, null);
+        g2d.setComposite(oldComp);
+    }
+
+    private BufferedImage createLayer() {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != null) {
+            return gc.createCompatibleImage(getWidth(), getHeight(), Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB);
+    }
+
     /**
      * overridden to provide gradient painting
      *
@@ -36,6 +36,7 @@ import java.beans.PropertyChangeListener;
 import java.lang.reflect.Field;
 import java.text.DateFormat;
 import java.text.NumberFormat;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
@@ -45,6 +46,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -65,6 +69,7 @@ import javax.swing.ListCellRenderer;
 import javax.swing.ListSelectionModel;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SizeSequence;
+import javax.swing.SwingUtilities;
 import javax.swing.UIDefaults;
 import javax.swing.UIManager;
 import javax.swing.event.ChangeEvent;
@@ -307,6 +312,9 @@ public class JXTable extends JTable {
 
     protected Searchable searchable;
 
+    /** shared by the parallel row scans of all TableSearchables. */
+    private static ExecutorService searchExecutor;
+
     /** Instantiates a JXTable with a default table model, no data. */
     public JXTable() {
         init();
@@ -922,6 +930,9 @@ public class JXTable extends JTable {
         super.tableChanged(e);
         updateSelectionAndRowModel(e);
         use(filters);
+        if (searchable instanceof TableSearchable) {
+            ((TableSearchable) searchable).updateMatches(e);
+        }
     }
 
     /**
@@ -1085,6 +1096,9 @@ public class JXTable extends JTable {
     protected void updateOnFilterContentChanged() {
         revalidate();
         repaint();
+        if (searchable instanceof TableSearchable) {
+            ((TableSearchable) searchable).updateMatchCount();
+        }
     }
 
 
@@ -1152,6 +1166,20 @@ public class JXTable extends JTable {
         // int modelIndex = convertColumnIndexToModel(e.getFromIndex());
         updateSorterAfterColumnRemoved();
         super.columnRemoved(e);
+        if (searchable instanceof TableSearchable) {
+            ((TableSearchable) searchable).updateColumns();
+        }
+    }
+
+    /**
+     * additionally updates the searchable.
+     * {@inheritDoc}
+     */
+    public void columnAdded(TableColumnModelEvent e) {
+        super.columnAdded(e);
+        if (searchable instanceof TableSearchable) {
+            ((TableSearchable) searchable).updateColumns();
+        }
     }
 
     /**
@@ -1451,14 +1479,83 @@ public class JXTable extends JTable {
         this.searchable = searchable;
     }
 
+    private static synchronized ExecutorService getSearchExecutor() {
+        if (searchExecutor == null) {
+            searchExecutor = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(), 
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "TableSearchable");
+                            thread.setDaemon(true);
+                            thread.setPriority(Thread.MIN_PRIORITY);
+                            return thread;
+                        }
+                    });
+        }
+        return searchExecutor;
+    }
+
+    /**
+     * Searchable for JXTable.
+     * 
+     * For tables with at least {@link #SCAN_THRESHOLD} rows, the first
+     * search for a pattern starts a scan of the model in slices on the EDT, 
+     * which records the rows with a matching cell in one of the visible 
+     * columns. If parallelScan is enabled, the model is scanned in parallel
+     * stripes off the EDT instead - this requires a model which supports 
+     * concurrent reads. 
+     * Searching skips rows known to not match, once the scan is complete
+     * repeated next/previous only test the matching rows. The scan results 
+     * are dropped on any model change and the scan is cancelled if the 
+     * pattern changes.
+     * 
+     * Bound properties, notified on the EDT: 
+     * <ul>
+     * <li> "scanProgress" - the percentage of the model scanned
+     * <li> "matchCount" - the number of matching rows in the view, once 
+     *   the scan is complete and after filter changes
+     * </ul>
+     */
     public class TableSearchable extends AbstractSearchable {
 
+        /** the minimum model row count to scan in the background. */
+        public static final int SCAN_THRESHOLD = 10000;
+        /** the number of rows scanned in one task off the EDT. */
+        private static final int STRIPE_ROWS = 16384;
+        /** the number of cells scanned in one slice on the EDT. */
+        private static final int SLICE_CELLS = 50000;
+
+        private boolean parallelScan;
+
         private SearchHighlighter searchHighlighter;
 
+        /** the scan for the current pattern, null if none. */
+        private RowScan rowScan;
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Here: a null pattern cancels the background scan.
+         */
+        @Override
+        public int search(Pattern pattern, int startIndex, boolean backwards) {
+            if (pattern == null) {
+                cancelRowScan();
+            }
+            return super.search(pattern, startIndex, backwards);
+        }
+
         @Override
         protected void findMatchAndUpdateState(Pattern pattern, int startRow,
                 boolean backwards) {
             SearchResult matchRow = null;
+            ensureRowScan(pattern);
+            if ((rowScan != null) && rowScan.isComplete() 
+                    && (rowScan.getMatchCount() == 0)) {
+                // no need to walk the rows
+                updateState(null);
+                return;
+            }
             if (backwards) {
                 // CHECK: off-one end still needed?
                 // Probably not - the findXX don't have side-effects any longer
@@ -1466,12 +1563,14 @@ public class JXTable extends JTable {
                 // guarantee calling the notfound update at the very end of the
                 // loop.
                 for (int r = startRow; r >= -1 && matchRow == null; r--) {
-                    matchRow = findMatchBackwardsInRow(pattern, r);
+                    matchRow = isKnownNoMatch(r) ? null 
+                            : findMatchBackwardsInRow(pattern, r);
                     updateState(matchRow);
                 }
             } else {
                 for (int r = startRow; r <= getSize() && matchRow == null; r++) {
-                    matchRow = findMatchForwardInRow(pattern, r);
+                    matchRow = isKnownNoMatch(r) ? null 
+                            : findMatchForwardInRow(pattern, r);
                     updateState(matchRow);
                 }
             }
@@ -1482,6 +1581,238 @@ public class JXTable extends JTable {
 
         }
 
+        /**
+         * Returns true if the background scan has found no matching cell 
+         * in the given row.
+         * 
+         * @param row the row in view coordinates
+         * @return true if the row is known to not match
+         */
+        private boolean isKnownNoMatch(int row) {
+            return (rowScan != null) && isValidIndex(row)
+                && rowScan.isKnownNoMatch(convertRowIndexToModel(row));
+        }
+
+        /**
+         * Starts a background scan for the pattern if the table is big 
+         * enough, cancels the scan of a different pattern.
+         * 
+         * @param pattern
+         */
+        private void ensureRowScan(Pattern pattern) {
+            if ((rowScan != null) && rowScan.isFor(pattern)) return;
+            cancelRowScan();
+            if (getModel().getRowCount() >= SCAN_THRESHOLD) {
+                rowScan = new RowScan(pattern);
+                rowScan.start();
+            }
+        }
+
+        /**
+         * Sets whether the model is scanned in parallel off the EDT. 
+         * The default is false, enable only if the model supports 
+         * concurrent reads.
+         * 
+         * @param parallel 
+         */
+        public void setParallelScan(boolean parallel) {
+            if (parallelScan == parallel) return;
+            this.parallelScan = parallel;
+            cancelRowScan();
+        }
+
+        public boolean isParallelScan() {
+            return parallelScan;
+        }
+
+        private void cancelRowScan() {
+            if (rowScan == null) return;
+            rowScan.cancelled = true;
+            rowScan = null;
+        }
+
+        /**
+         * Drops the background scan after columns were added or removed,
+         * it covers the visible columns only.
+         */
+        protected void updateColumns() {
+            cancelRowScan();
+        }
+
+        /**
+         * Recounts the matching rows in the view after a filter change.
+         */
+        protected void updateMatchCount() {
+            if ((rowScan == null) || !rowScan.isComplete()) return;
+            int old = rowScan.getMatchCount();
+            rowScan.countViewMatches();
+            firePropertyChange("matchCount", old, rowScan.getMatchCount());
+        }
+
+        /**
+         * Scans the model rows in stripes, one after the other on the EDT or
+         * in parallel on the search executor. The stripes' results are 
+         * merged on the EDT, which is the only thread accessing the bitsets.
+         */
+        private class RowScan {
+            private final Pattern pattern;
+            private final TableModel model;
+            private final int rowCount;
+            /** the model indices of the visible columns. */
+            private final int[] columns;
+            private final boolean parallel;
+            private final int stripeRows;
+            private final int stripeCount;
+            /** model rows with at least one matching cell. */
+            private final BitSet matchingRows = new BitSet();
+            private final BitSet scannedStripes = new BitSet();
+            private int scannedCount;
+            /** the number of matching rows in the view. */
+            private int viewMatchCount;
+            private volatile boolean cancelled;
+
+            RowScan(Pattern pattern) {
+                this.pattern = pattern;
+                this.model = getModel();
+                this.rowCount = model.getRowCount();
+                this.columns = new int[getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = convertColumnIndexToModel(i);
+                }
+                this.parallel = parallelScan;
+                this.stripeRows = parallel ? STRIPE_ROWS 
+                        : Math.max(1, SLICE_CELLS / Math.max(1, columns.length));
+                this.stripeCount = (rowCount + stripeRows - 1) / stripeRows;
+            }
+
+            boolean isFor(Pattern other) {
+                return pattern.pattern().equals(other.pattern())
+                    && pattern.flags() == other.flags();
+            }
+
+            boolean isComplete() {
+                return scannedCount == stripeCount;
+            }
+
+            /**
+             * @return the number of matching rows in the view. 
+             *   PRE: isComplete()
+             */
+            int getMatchCount() {
+                return viewMatchCount;
+            }
+
+            void countViewMatches() {
+                int count = 0;
+                if (!matchingRows.isEmpty()) {
+                    for (int row = 0; row < getRowCount(); row++) {
+                        if (matchingRows.get(convertRowIndexToModel(row))) {
+                            count++;
+                        }
+                    }
+                }
+                viewMatchCount = count;
+            }
+
+            boolean isKnownNoMatch(int modelRow) {
+                return modelRow < rowCount 
+                    && scannedStripes.get(modelRow / stripeRows)
+                    && !matchingRows.get(modelRow);
+            }
+
+            void start() {
+                if (!parallel) {
+                    scheduleSlice(0);
+                    return;
+                }
+                ExecutorService executor = getSearchExecutor();
+                for (int stripe = 0; stripe < stripeCount; stripe++) {
+                    final int first = stripe * stripeRows;
+                    final int last = Math.min(rowCount, first + stripeRows);
+                    final int index = stripe;
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            final BitSet matches = scan(first, last);
+                            SwingUtilities.invokeLater(new Runnable() {
+                                public void run() {
+                                    publish(index, first, matches);
+                                }
+                            });
+                        }
+                    });
+                }
+            }
+
+            /**
+             * Scans the stripe on the EDT, then schedules the next one. 
+             * 
+             * @param stripe
+             */
+            private void scheduleSlice(final int stripe) {
+                if (stripe >= stripeCount) return;
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        if (cancelled || (rowScan != RowScan.this)) return;
+                        int first = stripe * stripeRows;
+                        publish(stripe, first, 
+                                scan(first, Math.min(rowCount, first + stripeRows)));
+                        scheduleSlice(stripe + 1);
+                    }
+                });
+            }
+
+            /**
+             * Runs on the search executor or the EDT. 
+             * @return the matching rows relative to first, null if
+             *   cancelled or failed.
+             */
+            private BitSet scan(int first, int last) {
+                BitSet matches = new BitSet(last - first);
+                Matcher matcher = pattern.matcher("");
+                try {
+                    for (int row = first; row < last; row++) {
+                        if (cancelled) return null;
+                        for (int i = 0; i < columns.length; i++) {
+                            Object value = model.getValueAt(row, columns[i]);
+                            if ((value != null) 
+                                    && matcher.reset(value.toString()).find()) {
+                                matches.set(row - first);
+                                break;
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // the model changed under our feet, the change 
+                    // notification will drop the scan
+                    return null;
+                }
+                return matches;
+            }
+
+            private void publish(int stripe, int first, BitSet matches) {
+                if (cancelled || (rowScan != this)) return;
+                if (matches == null) {
+                    cancelRowScan();
+                    return;
+                }
+                for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                    matchingRows.set(first + i);
+                }
+                int oldProgress = getProgress();
+                scannedStripes.set(stripe);
+                scannedCount++;
+                firePropertyChange("scanProgress", oldProgress, getProgress());
+                if (isComplete()) {
+                    countViewMatches();
+                    firePropertyChange("matchCount", -1, getMatchCount());
+                }
+            }
+
+            private int getProgress() {
+                return stripeCount == 0 ? 100 : scannedCount * 100 / stripeCount;
+            }
+        }
+
         /**
          * called if sameRowIndex && !hasEqualRegEx. Matches the cell at
          * row/lastFoundColumn against the pattern. PRE: lastFoundColumn valid.
@@ -1556,6 +1887,14 @@ public class JXTable extends JTable {
          * @return
          */
         protected SearchResult findMatchAt(Pattern pattern, int row, int column) {
+            if (isMatchCacheFor(pattern)) {
+                int modelRow = convertRowIndexToModel(row);
+                if (getSearchHighlighter().isMatchKnown(modelRow)
+                        && !getSearchHighlighter().isMatch(modelRow, 
+                                convertColumnIndexToModel(column))) {
+                    return null;
+                }
+            }
             Object value = getValueAt(row, column);
             if (value != null) {
                 Matcher matcher = pattern.matcher(value.toString());
@@ -1672,10 +2011,41 @@ public class JXTable extends JTable {
         private SearchHighlighter getSearchHighlighter() {
             if (searchHighlighter == null) {
                 searchHighlighter = createSearchHighlighter();
+                searchHighlighter.setMatchAdapter(getComponentAdapter());
             }
             return searchHighlighter;
         }
 
+        /**
+         * Returns true if the search highlighter has cached the matches of 
+         * the given pattern, so cells can be checked without re-matching.
+         * 
+         * @param pattern
+         * @return
+         */
+        private boolean isMatchCacheFor(Pattern pattern) {
+            return (searchHighlighter != null) 
+                && searchHighlighter.isMatchCacheFor(pattern);
+        }
+
+        /**
+         * Updates the matches cached by the search highlighter after a 
+         * model change.
+         * 
+         * @param e the event received from the table's model
+         */
+        protected void updateMatches(TableModelEvent e) {
+            cancelRowScan();
+            if (searchHighlighter == null) return;
+            if ((e.getType() == TableModelEvent.UPDATE) 
+                    && (e.getFirstRow() != TableModelEvent.HEADER_ROW)
+                    && (e.getLastRow() != Integer.MAX_VALUE)) {
+                searchHighlighter.updateMatches(e.getFirstRow(), e.getLastRow());
+            } else {
+                searchHighlighter.invalidateMatches();
+            }
+        }
+
         private void ensureInsertedSearchHighlighters() {
             if (getHighlighters() == null) {
                 setHighlighters(new HighlighterPipeline(
@@ -1926,6 +2296,13 @@ public class JXTable extends JTable {
             return table.convertColumnIndexToModel(columnIndex);
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        public int convertRowIndexToModel(int rowIndex) {
+            return table.convertRowIndexToModel(rowIndex);
+        }
+
 
     }
 
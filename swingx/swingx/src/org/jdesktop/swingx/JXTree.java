@@ -30,7 +30,10 @@ import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Vector;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -57,6 +60,7 @@ import org.jdesktop.swingx.JXList.ListSearchable;
 import org.jdesktop.swingx.decorator.ComponentAdapter;
 import org.jdesktop.swingx.decorator.FilterPipeline;
 import org.jdesktop.swingx.decorator.HighlighterPipeline;
+import org.jdesktop.swingx.util.SwingWorker;
 
 
 /**
@@ -91,6 +95,9 @@ public class JXTree extends JTree {
     private LinkController linkController;
     private boolean overwriteIcons;
     private Searchable searchable;
+
+    /** true while expanding in bulk, holds back the expansion events. */
+    private boolean bulkExpansion;
     
     
     
@@ -393,9 +400,134 @@ public class JXTree extends JTree {
      * Expands all nodes in the tree table.
      */
     public void expandAll() {
-        for (int i = 0; i < getRowCount(); i++) {
-            expandRow(i);
+        expandAll(-1);
+    }
+
+    /**
+     * Expands all nodes up to the given depth. The paths to expand are 
+     * collected in one pass over the model and applied in bulk, 
+     * see {@link #setExpandedPaths(List)}.
+     * 
+     * @param maxDepth the number of levels below the root to show, 
+     *   a negative value expands all nodes.
+     */
+    public void expandAll(int maxDepth) {
+        setExpandedPaths(getExpandablePaths(maxDepth));
+    }
+
+    /**
+     * Expands all nodes up to the given depth, walking the model on a 
+     * background thread. This is meant for models which compute their 
+     * nodes lazily and are safe to query off the event dispatch thread. 
+     * The collected paths are applied on the event dispatch thread. <p>
+     * 
+     * The returned worker is already started, interrupting it cancels 
+     * the expansion if it's not yet applied.
+     * 
+     * @param maxDepth the number of levels below the root to show, 
+     *   a negative value expands all nodes.
+     * @return the worker collecting the paths.
+     */
+    public SwingWorker expandAllInBackground(final int maxDepth) {
+        SwingWorker worker = new SwingWorker() {
+            private volatile boolean cancelled;
+
+            public Object construct() {
+                return getExpandablePaths(maxDepth);
+            }
+
+            @SuppressWarnings("unchecked")
+            public void finished() {
+                List<TreePath> paths = (List<TreePath>) get();
+                if (!cancelled && (paths != null)) {
+                    setExpandedPaths(paths);
+                }
+            }
+
+            public void interrupt() {
+                cancelled = true;
+                super.interrupt();
+            }
+        };
+        worker.start();
+        return worker;
+    }
+
+    /**
+     * Returns the paths of all non-leaf nodes up to the given depth, parents
+     * first. Returns null if the current thread is interrupted while walking
+     * the model.
+     * 
+     * @param maxDepth the number of levels below the root to show, 
+     *   a negative value includes all nodes.
+     * @return the paths to expand in order to show all nodes up to maxDepth.
+     */
+    protected List<TreePath> getExpandablePaths(int maxDepth) {
+        List<TreePath> paths = new ArrayList<TreePath>();
+        TreeModel model = getModel();
+        Object root = model != null ? model.getRoot() : null;
+        if ((root == null) || (maxDepth == 0)) return paths;
+        LinkedList<TreePath> pending = new LinkedList<TreePath>();
+        pending.add(new TreePath(root));
+        while (!pending.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) return null;
+            TreePath path = pending.removeFirst();
+            Object node = path.getLastPathComponent();
+            if (model.isLeaf(node)) continue;
+            paths.add(path);
+            if ((maxDepth > 0) && (path.getPathCount() >= maxDepth)) continue;
+            int count = model.getChildCount(node);
+            for (int i = 0; i < count; i++) {
+                pending.add(path.pathByAddingChild(model.getChild(node, i)));
+            }
         }
+        return paths;
+    }
+
+    /**
+     * Expands the given paths. The expansion state of all paths is 
+     * changed before notifying any TreeExpansionListener, then a single 
+     * expansion event is fired for the common ancestor of the topmost
+     * paths which had been collapsed. The ui updates its layout cache for
+     * all expanded descendants of that path in one go. <p>
+     * 
+     * TreeWillExpandListeners are still notified (and can veto) per path.
+     * 
+     * @param paths the paths to expand, parents first.
+     */
+    protected void setExpandedPaths(List<TreePath> paths) {
+        List<TreePath> expanded = new ArrayList<TreePath>();
+        bulkExpansion = true;
+        try {
+            for (TreePath path : paths) {
+                if (isExpanded(path)) continue;
+                setExpandedState(path, true);
+                if (isExpanded(path)) {
+                    expanded.add(path);
+                }
+            }
+        } finally {
+            bulkExpansion = false;
+        }
+        if (expanded.isEmpty()) return;
+        TreePath common = expanded.get(0);
+        for (TreePath path : expanded) {
+            while (!common.isDescendant(path)) {
+                common = common.getParentPath();
+            }
+        }
+        fireTreeExpanded(common);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to hold back the notification while expanding in bulk.
+     */
+    @Override
+    public void fireTreeExpanded(TreePath path) {
+        if (bulkExpansion) return;
+        super.fireTreeExpanded(path);
     }
 
 
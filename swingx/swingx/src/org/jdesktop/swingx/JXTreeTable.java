@@ -31,8 +31,10 @@ import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.EventObject;
+import java.util.List;
 
 import javax.swing.ActionMap;
 import javax.swing.Icon;
@@ -44,6 +46,7 @@ import javax.swing.UIManager;
 import javax.swing.border.Border;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
+import javax.swing.event.TableModelEvent;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeExpansionListener;
 import javax.swing.event.TreeModelEvent;
@@ -378,6 +381,35 @@ public class JXTreeTable extends JXTable {
         setRowMargin(getRowMargin()); // call overridden setRowMargin()
     }
 
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Rows inserted or deleted by tree expansion or tree model changes have
+     * already been accounted for in the row selection by the tree. The
+     * selection is re-synchronized from the tree's selected paths instead of
+     * being shifted a second time.
+     */
+    public void tableChanged(TableModelEvent e) {
+        TreeSelectionModel treeSelection = renderer == null ? null 
+                : renderer.getSelectionModel();
+        if (!(treeSelection instanceof ListToTreeSelectionModelWrapper)
+                || ((e.getType() != TableModelEvent.INSERT) 
+                        && (e.getType() != TableModelEvent.DELETE))) {
+            super.tableChanged(e);
+            return;
+        }
+        ListToTreeSelectionModelWrapper wrapper = 
+            (ListToTreeSelectionModelWrapper) treeSelection;
+        boolean updating = wrapper.updatingListSelectionModel;
+        wrapper.updatingListSelectionModel = true;
+        try {
+            super.tableChanged(e);
+        } finally {
+            wrapper.updatingListSelectionModel = updating;
+        }
+        wrapper.resetRowSelection();
+    }
+
     /**
      * Returns the underlying TreeTableModel for this JXTreeTable.
      *
@@ -696,6 +728,17 @@ public class JXTreeTable extends JXTable {
         renderer.expandAll();
     }
 
+    /**
+     * Expands all nodes up to the given depth in the treetable.
+     * 
+     * @param maxDepth the number of levels below the root to show, 
+     *   a negative value expands all nodes.
+     * @see JXTree#expandAll(int)
+     */
+    public void expandAll(int maxDepth) {
+        renderer.expandAll(maxDepth);
+    }
+
     /**
      * Collapses the node at the specified path in the treetable.
      *
@@ -1193,6 +1236,7 @@ public class JXTreeTable extends JXTable {
 
     private static class TreeTableModelAdapter extends AbstractTableModel {
         private TreeModelListener treeModelListener;
+        private AbstractTreeTableModel.LazyLoadListener lazyLoadListener;
         /**
          * Maintains a TreeTableModel and a JTree as purely implementation details.
          * Developers can plug in any type of custom TreeTableModel through a
@@ -1213,14 +1257,18 @@ public class JXTreeTable extends JXTable {
             setTreeTableModel(model);
 
             tree.addTreeExpansionListener(new TreeExpansionListener() {
-                // Don't use fireTableRowsInserted() here; the selection model
-                // would get updated twice.
+                // Report the rows shown/hidden below the path only, instead
+                // of invalidating the complete table.
                 public void treeExpanded(TreeExpansionEvent event) {
-                    fireTableDataChanged();
+                    updateAfterExpansion(event.getPath(), true);
+                    if (getTreeTableModel() instanceof AbstractTreeTableModel) {
+                        ((AbstractTreeTableModel) getTreeTableModel())
+                            .ensureChildrenLoaded(event.getPath());
+                    }
                 }
 
                 public void treeCollapsed(TreeExpansionEvent event) {
-                    fireTableDataChanged();
+                    updateAfterExpansion(event.getPath(), false);
                 }
             });
         }
@@ -1234,13 +1282,36 @@ public class JXTreeTable extends JXTable {
             if (old != null) {
                 old.removeTreeModelListener(getTreeModelListener());
             }
+            if (old instanceof AbstractTreeTableModel) {
+                ((AbstractTreeTableModel) old).removeLazyLoadListener(
+                        getLazyLoadListener());
+            }
             this.model = model;
             // Install a TreeModelListener that can update the table when
             // tree changes. 
             model.addTreeModelListener(getTreeModelListener());
+            if (model instanceof AbstractTreeTableModel) {
+                ((AbstractTreeTableModel) model).addLazyLoadListener(
+                        getLazyLoadListener());
+            }
             fireTableStructureChanged();
         }
 
+        /**
+         * @return the listener collapsing lazy nodes which failed to load,
+         *   so that the next expansion retries.
+         */
+        private AbstractTreeTableModel.LazyLoadListener getLazyLoadListener() {
+            if (lazyLoadListener == null) {
+                lazyLoadListener = new AbstractTreeTableModel.LazyLoadListener() {
+                    public void loadFailed(TreePath path, Throwable error) {
+                        tree.collapsePath(path);
+                    }
+                };
+            }
+            return lazyLoadListener;
+        }
+
         /**
          * @return
          */
@@ -1251,19 +1322,23 @@ public class JXTreeTable extends JXTable {
                     // not be guaranteed the tree will have finished processing
                     // the event before us.
                     public void treeNodesChanged(TreeModelEvent e) {
+                        invalidateCachedRow();
                         delayedFireTableDataChanged(e, 0);
                     }
 
                     public void treeNodesInserted(TreeModelEvent e) {
+                        invalidateCachedRow();
                         delayedFireTableDataChanged(e, 1);
                     }
 
                     public void treeNodesRemoved(TreeModelEvent e) {
+                        invalidateCachedRow();
                         delayedFireTableDataChanged(e, 2);
                     }
 
                     public void treeStructureChanged(TreeModelEvent e) {
-                        delayedFireTableDataChanged();
+                        invalidateCachedRow();
+                        delayedFireTableDataChanged(e, 3);
                     }
                 };
             }
@@ -1330,83 +1405,252 @@ public class JXTreeTable extends JXTable {
         }
 
         public Object getValueAt(int row, int column) {
-            return model.getValueAt(nodeForRow(row), column);
+            Object node = nodeForRow(row);
+            if (node == AbstractTreeTableModel.LOADING_NODE) {
+                return column == 0 ? node : null;
+            }
+            return model.getValueAt(node, column);
         }
 
         public boolean isCellEditable(int row, int column) {
-            return model.isCellEditable(nodeForRow(row), column);
+            Object node = nodeForRow(row);
+            if (node == AbstractTreeTableModel.LOADING_NODE) {
+                return false;
+            }
+            return model.isCellEditable(node, column);
         }
 
         public void setValueAt(Object value, int row, int column) {
-            model.setValueAt(value, nodeForRow(row), column);
+            Object node = nodeForRow(row);
+            if (node == AbstractTreeTableModel.LOADING_NODE) {
+                return;
+            }
+            model.setValueAt(value, node, column);
         }
 
         protected Object nodeForRow(int row) {
-            return tree.getPathForRow(row).getLastPathComponent();
+            // all columns of a row are queried in sequence
+            if (row != cachedRow) {
+                cachedNode = tree.getPathForRow(row).getLastPathComponent();
+                cachedRow = row;
+            }
+            return cachedNode;
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * Keeps track of the row count known to the listeners and drops
+         * the cached row before notifying them.
          */
-        private void delayedFireTableDataChanged() {
-            SwingUtilities.invokeLater(new Runnable() {
-                public void run() {
-                    fireTableDataChanged();
+        public void fireTableChanged(TableModelEvent e) {
+            invalidateCachedRow();
+            reportedRowCount = getRowCount();
+            super.fireTableChanged(e);
+        }
+
+        private void invalidateCachedRow() {
+            cachedRow = -1;
+            cachedNode = null;
+        }
+
+        /**
+         * Fires the row insertion/deletion for the descendants of the 
+         * expanded/collapsed path. Falls back to fireTableDataChanged if the 
+         * change can't be mapped to a single range.
+         * 
+         * @param path the path which was expanded or collapsed
+         * @param expanded true if the path was expanded, false if collapsed
+         */
+        private void updateAfterExpansion(TreePath path, boolean expanded) {
+            int row = tree.getRowForPath(path);
+            int delta = tree.getRowCount() - reportedRowCount;
+            if ((row < 0) && (delta != 0)) {
+                fireTableDataChanged();
+                return;
+            }
+            if (expanded && (delta > 0)
+                    && (getLastDescendantRow(path, row) - row == delta)) {
+                fireTableRowsInserted(row + 1, row + delta);
+            } else if (!expanded && (delta < 0)) {
+                fireTableRowsDeleted(row + 1, row - delta);
+            } else if (delta != 0) {
+                fireTableDataChanged();
+                return;
+            }
+            if (row >= 0) {
+                // the expansion handle changed
+                fireTableRowsUpdated(row, row);
+            }
+        }
+
+        /**
+         * Returns the last row showing the path or one of its descendants.
+         * 
+         * @param path the path to look at
+         * @param row the row of the path, may be -1 for a hidden root
+         * @return the last row of the path's visible subtree
+         */
+        private int getLastDescendantRow(TreePath path, int row) {
+            int rowCount = tree.getRowCount();
+            int last = row;
+            while ((last + 1 < rowCount) 
+                    && path.isDescendant(tree.getPathForRow(last + 1))) {
+                last++;
+            }
+            return last;
+        }
+
+        /**
+         * Returns the row of the indexed child of the path or -1 if it is
+         * not visible.
+         */
+        private int getRowForChild(TreePath path, int index) {
+            Object parent = path.getLastPathComponent();
+            if ((index < 0) || (index >= model.getChildCount(parent))) {
+                return -1;
+            }
+            return tree.getRowForPath(path.pathByAddingChild(
+                    model.getChild(parent, index)));
+        }
+
+        private boolean isContiguous(int[] indices) {
+            for (int i = 1; i < indices.length; i++) {
+                if (indices[i] != indices[i - 1] + 1) {
+                    return false;
                 }
-            });
+            }
+            return true;
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * Maps the TreeModelEvent to the table rows affected after all the
+         * pending events have been processed. SwingUtilities.invokeLater is
+         * used to handle this. 
+         * 
+         * @param tme the event received from the TreeTableModel
+         * @param typeChange 0/1/2/3 for changed/inserted/removed/structure
          */
         private void delayedFireTableDataChanged(final TreeModelEvent tme, final int typeChange) {
             SwingUtilities.invokeLater(new Runnable() {
                 public void run() {
-                    int indices[] = tme.getChildIndices();
-                    TreePath path = tme.getTreePath();
-                    if (indices != null) { 
-                        if (tree.isExpanded(path)) { // Dont bother to update if the parent 
-                                                    // node is collapsed
-                            int startingRow = tree.getRowForPath(path)+1;
-                            int min = Integer.MAX_VALUE;
-                            int max = Integer.MIN_VALUE;
-                            for (int i=0;i<indices.length;i++) {
-                                if (indices[i] < min) {
-                                    min = indices[i];
-                                }
-                                if (indices[i] > max) {
-                                    max = indices[i];
-                                }
-                            }
-                            switch (typeChange) {
-                                case 0 :
-                                    fireTableRowsUpdated(startingRow + min, startingRow+max);
-                                break;
-                                case 1: 
-                                    fireTableRowsInserted(startingRow + min, startingRow+max);
-                                break;
-                                case 2:
-                                    fireTableRowsDeleted(startingRow + min, startingRow+max);
-                                break;
-                            }
-                        } else { 
-                        // not expanded - but change might effect appearance of parent
-                        // Issue #82-swingx
-                            int row = tree.getRowForPath(path);
-                            fireTableRowsUpdated(row, row);
-                        }
-                    }
-                    else {  // case where the event is fired to identify root.
-                        fireTableDataChanged();
-                    }
+                    updateAfterModelChange(tme, typeChange);
                 }
             });
         }
 
+        /**
+         * Fires the most specific table event(s) for the given 
+         * TreeModelEvent. Row ranges are verified against the row count 
+         * known to the listeners, any mismatch (f.i. due to coalesced
+         * changes) falls back to fireTableDataChanged.
+         * 
+         * @param tme the event received from the TreeTableModel
+         * @param typeChange 0/1/2/3 for changed/inserted/removed/structure
+         */
+        private void updateAfterModelChange(TreeModelEvent tme, int typeChange) {
+            TreePath path = tme.getTreePath();
+            int indices[] = tme.getChildIndices();
+            if ((path == null) || (path.getParentPath() == null && typeChange == 3)) {
+                // case where the event is fired to identify root.
+                fireTableDataChanged();
+                return;
+            }
+            int row = tree.getRowForPath(path);
+            int delta = tree.getRowCount() - reportedRowCount;
+            if (typeChange == 3) {
+                updateAfterStructureChange(path, row, delta);
+                return;
+            }
+            if ((indices == null) || (indices.length == 0)) {
+                if (delta != 0) {
+                    fireTableDataChanged();
+                } else if (row >= 0) {
+                    fireTableRowsUpdated(row, row);
+                }
+                return;
+            }
+            int[] sorted = (int[]) indices.clone();
+            Arrays.sort(sorted);
+            boolean showing = (row >= 0) || (path.getParentPath() == null);
+            if (!showing || !tree.isExpanded(path)) {
+                // not expanded - but change might effect appearance of parent
+                // Issue #82-swingx
+                if (delta != 0) {
+                    fireTableDataChanged();
+                } else if (row >= 0) {
+                    fireTableRowsUpdated(row, row);
+                }
+                return;
+            }
+            switch (typeChange) {
+                case 0:
+                    int first = getRowForChild(path, sorted[0]);
+                    int last = getRowForChild(path, sorted[sorted.length - 1]);
+                    if ((delta != 0) || (first < 0) || (last < 0)) {
+                        fireTableDataChanged();
+                    } else {
+                        fireTableRowsUpdated(first, last);
+                    }
+                    break;
+                case 1:
+                    int firstInserted = getRowForChild(path, sorted[0]);
+                    if (!isContiguous(sorted) || (delta != sorted.length) 
+                            || (firstInserted < 0)) {
+                        fireTableDataChanged();
+                    } else {
+                        fireTableRowsInserted(firstInserted, firstInserted + delta - 1);
+                    }
+                    break;
+                case 2:
+                    // the removed rows started where the following sibling
+                    // is now, or after the parent's remaining subtree
+                    int firstRemoved = getRowForChild(path, sorted[0]);
+                    if (firstRemoved < 0) {
+                        firstRemoved = getLastDescendantRow(path, row) + 1;
+                    }
+                    if (!isContiguous(sorted) || (-delta < sorted.length)) {
+                        fireTableDataChanged();
+                    } else {
+                        fireTableRowsDeleted(firstRemoved, firstRemoved - delta - 1);
+                    }
+                    break;
+            }
+            if (row >= 0) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
 
+        /**
+         * Fires the changes for a replaced subtree: rows are inserted or
+         * deleted at the end of the subtree to match the new size, the
+         * remaining subtree rows are updated. 
+         */
+        private void updateAfterStructureChange(TreePath path, int row, int delta) {
+            if (row < 0) {
+                // not showing
+                if (delta != 0) {
+                    fireTableDataChanged();
+                }
+                return;
+            }
+            int newSubtree = getLastDescendantRow(path, row) - row;
+            int oldSubtree = newSubtree - delta;
+            if (oldSubtree < 0) {
+                fireTableDataChanged();
+                return;
+            }
+            if (delta > 0) {
+                fireTableRowsInserted(row + 1 + oldSubtree, row + newSubtree);
+            } else if (delta < 0) {
+                fireTableRowsDeleted(row + 1 + newSubtree, row + oldSubtree);
+            }
+            fireTableRowsUpdated(row, row + Math.min(oldSubtree, newSubtree));
+        }
 
+        /** the row count as last reported to the TableModelListeners. */
+        private int reportedRowCount;
+        /** the row of the cached node, -1 if none. */
+        private int cachedRow = -1;
+        private Object cachedNode;
         private TreeTableModel model; // immutable
         private final JTree tree; // immutable
         private JXTreeTable treeTable = null; // logically immutable
@@ -1425,6 +1669,23 @@ public class JXTreeTable extends JXTable {
             setCellRenderer(new ClippedTreeCellRenderer());
         }
 
+        /**
+         * Overridden to load the children of lazily loaded nodes. The 
+         * adapter only sees the single coalesced expansion event.
+         */
+        @Override
+        protected void setExpandedPaths(List<TreePath> paths) {
+            super.setExpandedPaths(paths);
+            if (getModel() instanceof AbstractTreeTableModel) {
+                AbstractTreeTableModel model = (AbstractTreeTableModel) getModel();
+                for (TreePath path : paths) {
+                    if (isExpanded(path)) {
+                        model.ensureChildrenLoaded(path);
+                    }
+                }
+            }
+        }
+
         /**
          * Immutably binds this TreeTableModelAdapter to the specified JXTreeTable.
          * For internal use by JXTreeTable only.
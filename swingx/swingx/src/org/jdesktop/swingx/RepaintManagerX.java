@@ -39,6 +39,12 @@ import javax.swing.RepaintManager;
  */
 public class RepaintManagerX extends RepaintManager implements TranslucentRepaintManager {
     public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+        // nothing to redirect to
+        if (!JXPanel.hasTranslucentPanels()) {
+            markLayerDirty(c, x, y, w, h);
+            super.addDirtyRegion(c, x, y, w, h);
+            return;
+        }
         Rectangle dirtyRegion = getDirtyRegion(c);
         if (dirtyRegion.width == 0 && dirtyRegion.height == 0) {
             int lastDeltaX = c.getX();
@@ -53,12 +59,23 @@ public class RepaintManagerX extends RepaintManager implements TranslucentRepain
                     y += lastDeltaY;
                     lastDeltaX = lastDeltaY = 0;
                     c = (JComponent)parent;
+                    ((JXPanel) c).addLayerDirtyRegion(x, y, w, h);
                 }
                 lastDeltaX += parent.getX();
                 lastDeltaY += parent.getY();
                 parent = parent.getParent();
             }
         }
+        markLayerDirty(c, x, y, w, h);
         super.addDirtyRegion(c, x, y, w, h);
     }
+
+    /**
+     * Notifies a JXPanel about repaints of its own area. 
+     */
+    private void markLayerDirty(JComponent c, int x, int y, int w, int h) {
+        if (c instanceof JXPanel) {
+            ((JXPanel) c).addLayerDirtyRegion(x, y, w, h);
+        }
+    }
 }
\ No newline at end of file
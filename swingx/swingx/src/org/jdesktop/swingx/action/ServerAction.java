@@ -22,12 +22,12 @@ package org.jdesktop.swingx.action;
 
 import java.awt.event.ActionEvent;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.Reader;
 
 import java.net.MalformedURLException;
 import java.net.HttpURLConnection;
@@ -37,20 +37,32 @@ import java.net.URLConnection;
 
 import java.security.AccessControlException;
 
+import java.util.EventListener;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.Icon;
+import javax.swing.SwingUtilities;
+import javax.swing.event.EventListenerList;
 
 //import org.jdesktop.swing.Application;
 
 
 /**
  * An action which will invoke an http POST operation.
+ * <p>
+ * The request is sent on a shared pool of background threads, so a slow
+ * server doesn't block the event dispatch thread. The outcome is delivered
+ * to the registered {@link ResponseListener}s on the event dispatch thread.
+ * Invoking the action again while an identical request is still in flight
+ * doesn't send it a second time.
  *
  * @author Mark Davidson
  */
@@ -63,6 +75,23 @@ public class ServerAction extends AbstractAction {
 
     private static final String URL_CACHE = "_URL-CACHE__";
 
+    /**
+     * Number of threads sending requests for all ServerActions.
+     */
+    private static final int MAX_REQUESTS = 4;
+
+    private static ExecutorService requestExecutor;
+
+    private int connectTimeout = 10000;
+    private int readTimeout = 30000;
+    private int retryCount = 0;
+    private int retryDelay = 500;
+
+    private EventListenerList responseListeners = new EventListenerList();
+
+    /** The request in flight, only accessed on the EDT. */
+    private transient Request pendingRequest;
+
     public ServerAction() {
 	this("action");
     }
@@ -159,7 +188,7 @@ public class ServerAction extends AbstractAction {
      */
     public void addHeader(String name, String value) {
 	Map map = getHeaders();
-	if (map != null) {
+	if (map == null) {
 	    map = new HashMap();
 	    setHeaders(map);
 	}
@@ -182,22 +211,101 @@ public class ServerAction extends AbstractAction {
 	return headers == null ? null : headers.keySet();
     }
 
+    /**
+     * Sets the timeout in milliseconds for connecting to the server,
+     * 0 waits forever. The default is 10 seconds.
+     *
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+    public void setConnectTimeout(int timeout) {
+	if (timeout < 0) {
+	    throw new IllegalArgumentException("connectTimeout must not be negative: " + timeout);
+	}
+	connectTimeout = timeout;
+    }
+
+    public int getConnectTimeout() {
+	return connectTimeout;
+    }
+
+    /**
+     * Sets the timeout in milliseconds for waiting on the response,
+     * 0 waits forever. The default is 30 seconds.
+     *
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+    public void setReadTimeout(int timeout) {
+	if (timeout < 0) {
+	    throw new IllegalArgumentException("readTimeout must not be negative: " + timeout);
+	}
+	readTimeout = timeout;
+    }
+
+    public int getReadTimeout() {
+	return readTimeout;
+    }
+
+    /**
+     * Sets how often a request is retried if it fails with an
+     * IOException or a server error (code &gt;= 500). The default is 0.
+     * Before each retry the action waits, starting with the retry delay
+     * and doubling it every time.
+     */
+    public void setRetryCount(int count) {
+	if (count < 0) {
+	    throw new IllegalArgumentException("retryCount must not be negative: " + count);
+	}
+	retryCount = count;
+    }
+
+    public int getRetryCount() {
+	return retryCount;
+    }
+
+    /**
+     * Sets the delay in milliseconds before the first retry.
+     */
+    public void setRetryDelay(int delay) {
+	if (delay < 0) {
+	    throw new IllegalArgumentException("retryDelay must not be negative: " + delay);
+	}
+	retryDelay = delay;
+    }
+
+    public int getRetryDelay() {
+	return retryDelay;
+    }
+
+    public void addResponseListener(ResponseListener l) {
+	responseListeners.add(ResponseListener.class, l);
+    }
+
+    public void removeResponseListener(ResponseListener l) {
+	responseListeners.remove(ResponseListener.class, l);
+    }
+
+    /**
+     * Returns true if a request of this action is in flight.
+     */
+    public boolean isPending() {
+	return pendingRequest != null;
+    }
+
     /**
      * Invokes the server operation when the action has been invoked.
+     * The request is sent asynchronously, unless an identical request is
+     * already in flight.
      */
     public void actionPerformed(ActionEvent evt) {
 	URL execURL = (URL)getValue(URL_CACHE);
-	if (execURL == null && !"".equals(getURL())) {
+	if (execURL == null && getURL() != null && !"".equals(getURL())) {
 	    try {
 		String url = getURL();
 		if (url.startsWith("http")) {
 		    execURL = new URL(url);
 		} else {
 		}
-		if (execURL == null) {
-		    // XXX TODO: send a message
-		    return;
-		} else {
+		if (execURL != null) {
 		    // Cache this value.
 		    putValue(URL_CACHE, execURL);
 		}
@@ -206,25 +314,152 @@ public class ServerAction extends AbstractAction {
 		ex.printStackTrace();
 	    }
 	}
+	if (execURL == null) {
+	    // XXX TODO: send a message
+	    return;
+	}
+
+	Map headers = getHeaders();
+	Request request = new Request(execURL,
+		headers == null ? new HashMap() : new HashMap(headers),
+		getPostData());
+	if (request.equals(pendingRequest)) {
+	    if (Debug.debug) {
+		System.out.println("ServerAction: coalesced with pending request");
+	    }
+	    return;
+	}
+	pendingRequest = request;
+	getRequestExecutor().execute(request);
+    }
 
-	try {
-	    URLConnection uc = execURL.openConnection();
+    private static synchronized ExecutorService getRequestExecutor() {
+	if (requestExecutor == null) {
+	    requestExecutor = Executors.newFixedThreadPool(MAX_REQUESTS,
+		    new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+			    Thread thread = new Thread(r, "ServerAction");
+			    thread.setDaemon(true);
+			    return thread;
+			}
+		    });
+	}
+	return requestExecutor;
+    }
 
-	    // Get all the header name/value pairs ans set the request headers
-	    Set headerNames = getHeaderNames();
-	    if (headerNames != null && !headerNames.isEmpty()) {
-		Iterator iter = headerNames.iterator();
-		while (iter.hasNext()) {
-		    String name = (String)iter.next();
-		    uc.setRequestProperty(name, getHeaderValue(name));
+    /**
+     * Called on the EDT when a request has completed.
+     */
+    private void requestCompleted(Request request) {
+	if (pendingRequest == request) {
+	    pendingRequest = null;
+	}
+	Object[] listeners = responseListeners.getListenerList();
+	for (int i = listeners.length - 2; i >= 0; i -= 2) {
+	    if (listeners[i] == ResponseListener.class) {
+		ResponseListener l = (ResponseListener)listeners[i + 1];
+		if (request.exception == null) {
+		    l.responseReceived(this, request.code, request.message,
+			    request.response);
+		} else {
+		    l.requestFailed(this, request.exception);
 		}
 	    }
+	}
+    }
+
+    /**
+     * Sends the POST data, retrying as configured. Runs on the request
+     * executor and reports back on the EDT.
+     */
+    private final class Request implements Runnable {
+	private final URL url;
+	private final Map headers;
+	private final String postData;
+
+	// the outcome, published to the EDT by invokeLater
+	private int code = -1;
+	private String message;
+	private String response;
+	private Exception exception;
+
+	Request(URL url, Map headers, String postData) {
+	    this.url = url;
+	    this.headers = headers;
+	    this.postData = postData;
+	}
+
+	public void run() {
+	    try {
+		execute();
+	    } finally {
+		// always completes, else identical requests are dropped forever
+		SwingUtilities.invokeLater(new Runnable() {
+		    public void run() {
+			requestCompleted(Request.this);
+		    }
+		});
+	    }
+	}
+
+	private void execute() {
+	    long delay = retryDelay;
+	    for (int attempt = 0; ; attempt++) {
+		exception = null;
+		boolean retry;
+		try {
+		    send();
+		    retry = code >= 500;
+		} catch (UnknownHostException uhe) {
+		    Debug.printException("UnknownHostException detected. Could it be a proxy issue?\n" +
+					 uhe.getMessage(), uhe);
+		    exception = uhe;
+		    retry = false;
+		} catch (AccessControlException aex) {
+		    Debug.printException("AccessControlException detected\n" +
+					 aex.getMessage(), aex);
+		    exception = aex;
+		    retry = false;
+		} catch (IOException ex) {
+		    Debug.printException("IOException detected\n" +
+					 ex.getMessage(), ex);
+		    exception = ex;
+		    retry = true;
+		} catch (RuntimeException ex) {
+		    Debug.printException("Exception detected\n" +
+					 ex.getMessage(), ex);
+		    exception = ex;
+		    retry = false;
+		}
+		if (!retry || attempt >= retryCount) {
+		    break;
+		}
+		try {
+		    Thread.sleep(delay);
+		} catch (InterruptedException ex) {
+		    break;
+		}
+		delay *= 2;
+	    }
+	}
+
+	private void send() throws IOException {
+	    URLConnection uc = url.openConnection();
+	    uc.setConnectTimeout(connectTimeout);
+	    uc.setReadTimeout(readTimeout);
+
+	    // Get all the header name/value pairs ans set the request headers
+	    Iterator iter = headers.keySet().iterator();
+	    while (iter.hasNext()) {
+		String name = (String)iter.next();
+		uc.setRequestProperty(name, (String)headers.get(name));
+	    }
 	    uc.setUseCaches(false);
 	    uc.setDoOutput(true);
 
 	    ByteArrayOutputStream byteStream = new ByteArrayOutputStream(512);
 	    PrintWriter out = new PrintWriter(byteStream, true);
-	    out.print(getPostData());
+	    out.print(postData);
 	    out.flush();
 
 	    // POST requests must have a content-length.
@@ -234,50 +469,86 @@ public class ServerAction extends AbstractAction {
 	    // Write POST data to real output stream.
 	    byteStream.writeTo(uc.getOutputStream());
 
-	    BufferedReader buf = null;
+	    InputStream in;
 	    if (uc instanceof HttpURLConnection) {
 		HttpURLConnection huc = (HttpURLConnection)uc;
-		int code = huc.getResponseCode();
-		String message = huc.getResponseMessage();
+		code = huc.getResponseCode();
+		message = huc.getResponseMessage();
 
 		// Handle the result.
-		if (code < 400) {
-		    // action succeeded send to status bar
-		    // XXX TODO: setStatusMessage(createMessage(code, message));
-		    // Format the response
-		    // TODO: This should load asychnonously
-		    buf = new BufferedReader(new InputStreamReader(uc.getInputStream()));
+		// XXX TODO: setStatusMessage(createMessage(code, message));
+		in = code < 400 ? uc.getInputStream() : huc.getErrorStream();
+	    } else {
+		in = uc.getInputStream();
+	    }
+	    response = read(in);
+	    if (Debug.debug) {
+		System.out.println(response);
+	    }
+	}
 
-		} else {
-		    // action has failed show dialog
-		    // XXX TODO: setStatusMessage(createMessage(code, message));
-		    buf = new BufferedReader(new InputStreamReader(huc.getErrorStream()));
-		}
-		String line;
-
-		StringBuffer buffer = new StringBuffer();
-		while ((line = buf.readLine()) != null) {
-            // RG: Fix for J2SE 5.0; Can't cascade append() calls because
-            // return type in StringBuffer and AbstractStringBuilder are different
-		    buffer.append(line);
-            buffer.append('\n');
-		}
-		if (Debug.debug) {
-		    // XXX So now that we have results in the StringBuffer, we should do something
-		    // with it.
-		    System.out.println(buffer.toString());
+	/**
+	 * Reads the stream to the end and closes it, which lets the
+	 * connection be kept alive and reused for the next request to
+	 * the same server.
+	 */
+	private String read(InputStream in) throws IOException {
+	    if (in == null) {
+		return "";
+	    }
+	    StringBuffer buffer = new StringBuffer();
+	    Reader reader = new InputStreamReader(in);
+	    try {
+		char[] chars = new char[4096];
+		int count;
+		while ((count = reader.read(chars)) != -1) {
+		    buffer.append(chars, 0, count);
 		}
+	    } finally {
+		reader.close();
+	    }
+	    return buffer.toString();
+	}
+
+	/**
+	 * Requests are equal if they would send the same data to the same
+	 * url, they are not distinguished by their outcome.
+	 */
+	public boolean equals(Object obj) {
+	    if (!(obj instanceof Request)) {
+		return false;
 	    }
-	} catch (UnknownHostException uhe) {
-	    Debug.printException("UnknownHostException detected. Could it be a proxy issue?\n" +
-				 uhe.getMessage(), uhe);
-	} catch (AccessControlException aex) {
-	    Debug.printException("AccessControlException detected\n" +
-			    aex.getMessage(), aex);
-	} catch (IOException ex) {
-	    Debug.printException("IOException detected\n" +
-				 ex.getMessage(), ex);
+	    Request other = (Request)obj;
+	    return url.toString().equals(other.url.toString())
+		&& headers.equals(other.headers)
+		&& postData.equals(other.postData);
 	}
+
+	public int hashCode() {
+	    return postData.hashCode();
+	}
+    }
+
+    /**
+     * Notified on the event dispatch thread when a request of a
+     * ServerAction has completed.
+     */
+    public static interface ResponseListener extends EventListener {
+	/**
+	 * The server has responded. Codes &gt;= 400 are failures, the
+	 * response is the content of the error stream then.
+	 *
+	 * @param code the http response code, -1 if not an http url
+	 * @param message the http response message
+	 * @param response the response content
+	 */
+	void responseReceived(ServerAction action, int code, String message,
+			      String response);
+
+	/**
+	 * The request couldn't be completed, after all retries.
+	 */
+	void requestFailed(ServerAction action, Exception ex);
     }
 
     /**
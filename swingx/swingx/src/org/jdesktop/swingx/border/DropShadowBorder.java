@@ -25,7 +25,6 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -34,7 +33,9 @@ import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ConvolveOp;
 import java.awt.image.Kernel;
+import java.lang.ref.SoftReference;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.swing.UIManager;
@@ -52,8 +53,25 @@ public class DropShadowBorder implements Border {
     private static enum Position {TOP, TOP_LEFT, LEFT, BOTTOM_LEFT,
                     BOTTOM, BOTTOM_RIGHT, RIGHT, TOP_RIGHT};
                     
-    private static final Map<Integer,Map<Position,BufferedImage>> CACHE 
-            = new HashMap<Integer,Map<Position,BufferedImage>>();
+    /**
+     * The maximum number of distinct shadow configurations kept in the cache.
+     */
+    private static final int MAX_CACHE_SIZE = 32;
+    
+    /**
+     * Shared cache of rendered shadow tiles. The key includes every property
+     * that affects the rendered shadow, entries are evicted in LRU order and
+     * the tiles themselves are softly referenced so they can be reclaimed
+     * under memory pressure. All access is guarded by the map's own monitor.
+     */
+    private static final Map<ShadowKey,SoftReference<Map<Position,BufferedImage>>> CACHE 
+            = new LinkedHashMap<ShadowKey,SoftReference<Map<Position,BufferedImage>>>(16, .75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<ShadowKey,SoftReference<Map<Position,BufferedImage>>> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+    private static int cacheHits;
+    private static int cacheMisses;
                         
     private Color lineColor;
     private int lineWidth;
@@ -167,22 +185,22 @@ public class DropShadowBorder implements Border {
         
         if (showLeftShadow) {
             Rectangle leftShadowRect = new Rectangle(x, (int)(topLeftShadowPoint.getY() + shadowSize), shadowSize, (int)(bottomLeftShadowPoint.getY() - topLeftShadowPoint.getY() - shadowSize));
-            g2.drawImage(images.get(Position.LEFT).getScaledInstance(leftShadowRect.width, leftShadowRect.height, Image.SCALE_FAST), leftShadowRect.x, leftShadowRect.y, null);
+            g2.drawImage(images.get(Position.LEFT), leftShadowRect.x, leftShadowRect.y, leftShadowRect.width, leftShadowRect.height, null);
         }
 
         if (showBottomShadow) {
             Rectangle bottomShadowRect = new Rectangle((int)(bottomLeftShadowPoint.getX() + shadowSize), y + height - shadowSize, (int)(bottomRightShadowPoint.getX() - bottomLeftShadowPoint.getX() - shadowSize), shadowSize);
-            g2.drawImage(images.get(Position.BOTTOM).getScaledInstance(bottomShadowRect.width, bottomShadowRect.height, Image.SCALE_FAST), bottomShadowRect.x, bottomShadowRect.y, null);
+            g2.drawImage(images.get(Position.BOTTOM), bottomShadowRect.x, bottomShadowRect.y, bottomShadowRect.width, bottomShadowRect.height, null);
         }
         
         if (showRightShadow) {
             Rectangle rightShadowRect = new Rectangle(x + width - shadowSize, (int)(topRightShadowPoint.getY() + shadowSize), shadowSize, (int)(bottomRightShadowPoint.getY() - topRightShadowPoint.getY() - shadowSize));
-            g2.drawImage(images.get(Position.RIGHT).getScaledInstance(rightShadowRect.width, rightShadowRect.height, Image.SCALE_FAST), rightShadowRect.x, rightShadowRect.y, null);
+            g2.drawImage(images.get(Position.RIGHT), rightShadowRect.x, rightShadowRect.y, rightShadowRect.width, rightShadowRect.height, null);
         }
         
         if (showTopShadow) {
             Rectangle topShadowRect = new Rectangle((int)topLeftShadowPoint.getX() + shadowSize, y, (int)(topRightShadowPoint.getX() - topLeftShadowPoint.getX() - shadowSize), shadowSize);
-            g2.drawImage(images.get(Position.TOP).getScaledInstance(topShadowRect.width, topShadowRect.height, Image.SCALE_FAST), topShadowRect.x, topShadowRect.y, null);
+            g2.drawImage(images.get(Position.TOP), topShadowRect.x, topShadowRect.y, topShadowRect.width, topShadowRect.height, null);
         }
         
         if (showLeftShadow || showTopShadow) {
@@ -200,94 +218,141 @@ public class DropShadowBorder implements Border {
     }
     
     private Map<Position,BufferedImage> getImages(Graphics2D g2) {
-        //first, check to see if an image for this size has already been rendered
-        //if so, use the cache. Else, draw and save
-        Map<Position,BufferedImage> images = CACHE.get(shadowSize);
-        if (images == null) {
-            images = new HashMap<Position,BufferedImage>();
-
-            /*
-             * Do draw a drop shadow, I have to:
-             *  1) Create a rounded rectangle
-             *  2) Create a BufferedImage to draw the rounded rect in
-             *  3) Translate the graphics for the image, so that the rectangle
-             *     is centered in the drawn space. The border around the rectangle
-             *     needs to be shadowWidth wide, so that there is space for the
-             *     shadow to be drawn.
-             *  4) Draw the rounded rect as black, with an opacity of 50%
-             *  5) Create the BLUR_KERNEL
-             *  6) Blur the image
-             *  7) copy off the corners, sides, etc into images to be used for
-             *     drawing the Border
-             */
-            int rectWidth = cornerSize + 1;
-            RoundRectangle2D rect = new RoundRectangle2D.Double(0, 0, rectWidth, rectWidth, cornerSize, cornerSize);
-            int imageWidth = rectWidth + shadowSize * 2;
-            BufferedImage image = new BufferedImage(imageWidth, imageWidth, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D buffer = (Graphics2D)image.getGraphics();
-            buffer.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-            buffer.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            buffer.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            buffer.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-            buffer.setColor(new Color(0.0f, 0.0f, 0.0f, shadowOpacity));
-            buffer.translate(shadowSize, shadowSize);
-            buffer.fill(rect);
-            float blurry = 1.0f / (float)(shadowSize * shadowSize);
-            float[] blurKernel = new float[shadowSize * shadowSize];
-            for (int i=0; i<blurKernel.length; i++) {
-                blurKernel[i] = blurry;
+        //first, check to see if an image for this configuration has already been
+        //rendered. If so, use the cache. Else, draw and save
+        ShadowKey key = new ShadowKey(shadowSize, shadowOpacity, cornerSize);
+        synchronized (CACHE) {
+            SoftReference<Map<Position,BufferedImage>> ref = CACHE.get(key);
+            Map<Position,BufferedImage> images = ref == null ? null : ref.get();
+            if (images != null) {
+                cacheHits++;
+                return images;
             }
-            ConvolveOp blur = new ConvolveOp(new Kernel(shadowSize, shadowSize, blurKernel));
-            BufferedImage targetImage = new BufferedImage(imageWidth, imageWidth, BufferedImage.TYPE_INT_ARGB);
-            ((Graphics2D)targetImage.getGraphics()).drawImage(image, blur, -(shadowSize/2), -(shadowSize/2));
+            cacheMisses++;
+        }
+        //render outside of the lock, a concurrent miss for the same key
+        //simply renders an identical set of tiles
+        Map<Position,BufferedImage> images = createImages();
+        synchronized (CACHE) {
+            CACHE.put(key, new SoftReference<Map<Position,BufferedImage>>(images));
+        }
+        return images;
+    }
+    
+    private Map<Position,BufferedImage> createImages() {
+        Map<Position,BufferedImage> images = new HashMap<Position,BufferedImage>();
 
-            int x = 1;
-            int y = 1;
-            int w = shadowSize;
-            int h = shadowSize;
-            images.put(Position.TOP_LEFT, targetImage.getSubimage(x, y, w, h));
-            x = 1;
-            y = h;
-            w = shadowSize;
-            h = 1;
-            images.put(Position.LEFT, targetImage.getSubimage(x, y, w, h));
-            x = 1;
-            y = rectWidth;
-            w = shadowSize;
-            h = shadowSize;
-            images.put(Position.BOTTOM_LEFT, targetImage.getSubimage(x, y, w, h));
-            x = cornerSize + 1;
-            y = rectWidth;
-            w = 1;
-            h = shadowSize;
-            images.put(Position.BOTTOM, targetImage.getSubimage(x, y, w, h));
-            x = rectWidth;
-            y = x;
-            w = shadowSize;
-            h = shadowSize;
-            images.put(Position.BOTTOM_RIGHT, targetImage.getSubimage(x, y, w, h));
-            x = rectWidth;
-            y = cornerSize + 1;
-            w = shadowSize;
-            h = 1;
-            images.put(Position.RIGHT, targetImage.getSubimage(x, y, w, h));
-            x = rectWidth;
-            y = 1;
-            w = shadowSize;
-            h = shadowSize;
-            images.put(Position.TOP_RIGHT, targetImage.getSubimage(x, y, w, h));
-            x = shadowSize;
-            y = 1;
-            w = 1;
-            h = shadowSize;
-            images.put(Position.TOP, targetImage.getSubimage(x, y, w, h));
-                        
-            buffer.dispose();
-            image.flush();
+        /*
+         * Do draw a drop shadow, I have to:
+         *  1) Create a rounded rectangle
+         *  2) Create a BufferedImage to draw the rounded rect in
+         *  3) Translate the graphics for the image, so that the rectangle
+         *     is centered in the drawn space. The border around the rectangle
+         *     needs to be shadowWidth wide, so that there is space for the
+         *     shadow to be drawn.
+         *  4) Draw the rounded rect as black, with the shadow opacity
+         *  5) Blur the image with a horizontal and then a vertical box
+         *     kernel. This is equivalent to the square box kernel, but costs
+         *     2 * shadowSize instead of shadowSize^2 operations per pixel
+         *  6) copy off the corners, sides, etc into images to be used for
+         *     drawing the Border
+         */
+        int rectWidth = cornerSize + 1;
+        RoundRectangle2D rect = new RoundRectangle2D.Double(0, 0, rectWidth, rectWidth, cornerSize, cornerSize);
+        int imageWidth = rectWidth + shadowSize * 2;
+        BufferedImage image = new BufferedImage(imageWidth, imageWidth, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D buffer = (Graphics2D)image.getGraphics();
+        buffer.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        buffer.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        buffer.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        buffer.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        buffer.setColor(new Color(0.0f, 0.0f, 0.0f, shadowOpacity));
+        buffer.translate(shadowSize, shadowSize);
+        buffer.fill(rect);
+        buffer.dispose();
+        
+        float blurry = 1.0f / (float)shadowSize;
+        float[] blurKernel = new float[shadowSize];
+        for (int i=0; i<blurKernel.length; i++) {
+            blurKernel[i] = blurry;
         }
+        ConvolveOp horizontalBlur = new ConvolveOp(new Kernel(shadowSize, 1, blurKernel));
+        ConvolveOp verticalBlur = new ConvolveOp(new Kernel(1, shadowSize, blurKernel));
+        BufferedImage blurred = verticalBlur.filter(horizontalBlur.filter(image, null), null);
+        image.flush();
+        BufferedImage targetImage = new BufferedImage(imageWidth, imageWidth, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D target = (Graphics2D)targetImage.getGraphics();
+        target.drawImage(blurred, -(shadowSize/2), -(shadowSize/2), null);
+        target.dispose();
+        blurred.flush();
+
+        int x = 1;
+        int y = 1;
+        int w = shadowSize;
+        int h = shadowSize;
+        images.put(Position.TOP_LEFT, targetImage.getSubimage(x, y, w, h));
+        x = 1;
+        y = h;
+        w = shadowSize;
+        h = 1;
+        images.put(Position.LEFT, targetImage.getSubimage(x, y, w, h));
+        x = 1;
+        y = rectWidth;
+        w = shadowSize;
+        h = shadowSize;
+        images.put(Position.BOTTOM_LEFT, targetImage.getSubimage(x, y, w, h));
+        x = cornerSize + 1;
+        y = rectWidth;
+        w = 1;
+        h = shadowSize;
+        images.put(Position.BOTTOM, targetImage.getSubimage(x, y, w, h));
+        x = rectWidth;
+        y = x;
+        w = shadowSize;
+        h = shadowSize;
+        images.put(Position.BOTTOM_RIGHT, targetImage.getSubimage(x, y, w, h));
+        x = rectWidth;
+        y = cornerSize + 1;
+        w = shadowSize;
+        h = 1;
+        images.put(Position.RIGHT, targetImage.getSubimage(x, y, w, h));
+        x = rectWidth;
+        y = 1;
+        w = shadowSize;
+        h = shadowSize;
+        images.put(Position.TOP_RIGHT, targetImage.getSubimage(x, y, w, h));
+        x = shadowSize;
+        y = 1;
+        w = 1;
+        h = shadowSize;
+        images.put(Position.TOP, targetImage.getSubimage(x, y, w, h));
         return images;
     }
     
+    /**
+     * Returns the number of times the shadow images for a border were found
+     * in the shared cache.
+     *
+     * @return the number of shadow cache hits
+     */
+    public static int getCacheHitCount() {
+        synchronized (CACHE) {
+            return cacheHits;
+        }
+    }
+    
+    /**
+     * Returns the number of times the shadow images for a border had to be
+     * rendered because they were not found in the shared cache.
+     *
+     * @return the number of shadow cache misses
+     */
+    public static int getCacheMissCount() {
+        synchronized (CACHE) {
+            return cacheMisses;
+        }
+    }
+    
     /**
      * @inheritDoc
      */
@@ -341,4 +406,37 @@ public class DropShadowBorder implements Border {
     public int getCornerSize() {
         return cornerSize;
     }
+    
+    /**
+     * Identifies a set of rendered shadow images by all of the properties
+     * that influence their appearance.
+     */
+    private static final class ShadowKey {
+        private final int shadowSize;
+        private final float shadowOpacity;
+        private final int cornerSize;
+        
+        ShadowKey(int shadowSize, float shadowOpacity, int cornerSize) {
+            this.shadowSize = shadowSize;
+            this.shadowOpacity = shadowOpacity;
+            this.cornerSize = cornerSize;
+        }
+        
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ShadowKey)) {
+                return false;
+            }
+            ShadowKey other = (ShadowKey)obj;
+            return shadowSize == other.shadowSize
+                    && cornerSize == other.cornerSize
+                    && Float.floatToIntBits(shadowOpacity) == Float.floatToIntBits(other.shadowOpacity);
+        }
+        
+        public int hashCode() {
+            int result = shadowSize;
+            result = 31 * result + cornerSize;
+            result = 31 * result + Float.floatToIntBits(shadowOpacity);
+            return result;
+        }
+    }
 }
\ No newline at end of file
@@ -22,11 +22,14 @@ package org.jdesktop.swingx.calendar;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.text.SimpleDateFormat;
 import java.text.DateFormatSymbols;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 import java.util.TimeZone;
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -209,6 +212,26 @@ public class JXMonthView extends JComponent {
     private ImageIcon _monthUpImage;
     private Hashtable<Integer, Color> _dayToColorTable = new Hashtable<Integer, Color>();
 
+    /**
+     * Day of month labels, indexed by day of month - 1, and their widths in
+     * the plain and the bold font.  Calculated in update.
+     */
+    private String[] _dayLabels = new String[31];
+    private int[] _dayLabelWidths = new int[31];
+    private int[] _flaggedDayLabelWidths = new int[31];
+    private int _dayLabelAscent;
+    private int _flaggedDayLabelAscent;
+
+    /** The flagged dates for lookup while painting, null if none. */
+    private DaySet _flaggedDaySet;
+
+    /**
+     * Layout and pre-rendered image of the displayed months keyed by the
+     * time of their first day.  Grids of an older generation are stale.
+     */
+    private Map<Long, MonthGrid> _grids = new HashMap<Long, MonthGrid>();
+    private int _gridGeneration;
+
     /**
      * Date span used by the keyboard actions to track the original selection.
      */
@@ -601,6 +624,8 @@ public class JXMonthView extends JComponent {
      */
     public void setFlaggedDates(long[] flaggedDates) {
         _flaggedDates = flaggedDates;
+        _flaggedDaySet = null;
+        invalidateGrids();
 
         if (_flaggedDates == null) {
             repaint();
@@ -621,6 +646,7 @@ public class JXMonthView extends JComponent {
 
             _flaggedDates[i] = _cal.getTimeInMillis();
         }
+        _flaggedDaySet = new DaySet(_flaggedDates);
 
         // Restore the time.
         _cal.setTimeInMillis(_firstDisplayedDate);
@@ -750,6 +776,7 @@ public class JXMonthView extends JComponent {
 
         _firstDayOfWeek = firstDayOfWeek;
         _cal.setFirstDayOfWeek(_firstDayOfWeek);
+        invalidateGrids();
 
         repaint();
     }
@@ -770,6 +797,7 @@ public class JXMonthView extends JComponent {
      */
     public void setTimeZone(TimeZone tz) {
         _cal.setTimeZone(tz);
+        invalidateGrids();
     }
 
     /**
@@ -794,6 +822,7 @@ public class JXMonthView extends JComponent {
             return;
         }
         _antiAlias = antiAlias;
+        invalidateGrids();
         repaint();
     }
 
@@ -860,6 +889,7 @@ public class JXMonthView extends JComponent {
      */
     public void setMonthStringBackground(Color c) {
         _monthStringBackground = c;
+        invalidateGrids();
         repaint();
     }
 
@@ -880,6 +910,7 @@ public class JXMonthView extends JComponent {
      */
     public void setMonthStringForeground(Color c) {
         _monthStringForeground = c;
+        invalidateGrids();
         repaint();
     }
 
@@ -891,6 +922,7 @@ public class JXMonthView extends JComponent {
      */
     public void setDaysOfTheWeekForeground(Color c) {
         _daysOfTheWeekForeground = c;
+        invalidateGrids();
         repaint();
     }
     
@@ -910,6 +942,7 @@ public class JXMonthView extends JComponent {
      */
     public void setDayForeground(int dayOfWeek, Color c) {
         _dayToColorTable.put(dayOfWeek, c);
+        invalidateGrids();
     }
 
     /**
@@ -956,6 +989,7 @@ public class JXMonthView extends JComponent {
             _monthStringInsets.bottom = insets.bottom;
             _monthStringInsets.right = insets.right;
         }
+        invalidateGrids();
         repaint();
     }
 
@@ -1064,14 +1098,20 @@ public class JXMonthView extends JComponent {
         _cal.set(Calendar.MONTH, longestMonth);
         _cal.set(Calendar.DAY_OF_MONTH,
                 _cal.getActualMinimum(Calendar.DAY_OF_MONTH));
+        // Keep the labels and their widths for painting.
+        FontMetrics plainFM = getFontMetrics(getFont());
         for (int i = 0; i < daysInLongestMonth; i++) {
-            currWidth = fm.stringWidth(
-                    _dayOfMonthFormatter.format(_cal.getTime()));
+            _dayLabels[i] = _dayOfMonthFormatter.format(_cal.getTime());
+            currWidth = fm.stringWidth(_dayLabels[i]);
+            _flaggedDayLabelWidths[i] = currWidth;
+            _dayLabelWidths[i] = plainFM.stringWidth(_dayLabels[i]);
             if (currWidth > _boxWidth) {
                 _boxWidth = currWidth;
             }
             _cal.add(Calendar.DAY_OF_MONTH, 1);
         }
+        _dayLabelAscent = plainFM.getAscent();
+        _flaggedDayLabelAscent = fm.getAscent();
 
         // If the calendar is traversable, check the icon heights and
         // adjust the month box height accordingly.
@@ -1115,6 +1155,7 @@ public class JXMonthView extends JComponent {
 
         // Restore calendar.
         _cal.setTimeInMillis(_firstDisplayedDate);
+        invalidateGrids();
 
         calculateNumDisplayedCals();
         calculateStartPosition();
@@ -1238,6 +1279,7 @@ public class JXMonthView extends JComponent {
     public void setComponentOrientation(ComponentOrientation o) {
         super.setComponentOrientation(o);
         _ltr = o.isLeftToRight();
+        invalidateGrids();
         calculateStartPosition();
         calculateDirtyRectForSelection();
     }
@@ -1254,6 +1296,17 @@ public class JXMonthView extends JComponent {
         _dirty = true;
     }
 
+    /**
+     * Sets the foreground color of this component.
+     *
+     * @param fg The color to become this component's foreground color.
+     */
+    @Override
+    public void setForeground(Color fg) {
+        super.setForeground(fg);
+        invalidateGrids();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1300,15 +1353,6 @@ public class JXMonthView extends JComponent {
      */
     @Override
     protected void paintComponent(Graphics g) {
-        Object oldAAValue = null;
-        Graphics2D g2 = (g instanceof Graphics2D) ? (Graphics2D)g : null;
-        if (g2 != null && _antiAlias) {
-            oldAAValue = g2.getRenderingHint(
-                RenderingHints.KEY_TEXT_ANTIALIASING);
-            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-                                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        }
-
         Rectangle clip = g.getClipBounds();
 
         updateIfNecessary();
@@ -1317,154 +1361,37 @@ public class JXMonthView extends JComponent {
             g.setColor(getBackground());
             g.fillRect(clip.x, clip.y, clip.width, clip.height);
         }
-        g.setColor(getForeground());
-        Color shadowColor = g.getColor();
-        shadowColor = new Color(shadowColor.getRed(), shadowColor.getGreen(),
-                shadowColor.getBlue(), (int)(.20 * 255));
-
-        FontMetrics fm = g.getFontMetrics();
 
-        // Reset the calendar.
-        _cal.setTimeInMillis(_firstDisplayedDate);
+        Object oldAAValue = null;
+        Graphics2D g2 = (g instanceof Graphics2D) ? (Graphics2D)g : null;
+        if (g2 != null && _antiAlias) {
+            oldAAValue = g2.getRenderingHint(
+                RenderingHints.KEY_TEXT_ANTIALIASING);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        }
 
-        // Center the calendars vertically in the available space.
+        // The static part of each month comes from its cached image, only
+        // the selection and today are painted on top.
+        long monthStart = _firstDisplayedDate;
         int y = _startY;
         for (int row = 0; row < _numCalRows; row++) {
             // Center the calendars horizontally in the available space.
             int x = _startX;
-            int tmpX, tmpY;
-
-            // Check if this row falls in the clip region.
-            _bounds.x = 0;
-            _bounds.y = _startY +
-                    row * (_calendarHeight + CALENDAR_SPACING);
-            _bounds.width = getWidth();
-            _bounds.height = _calendarHeight;
-
-            if (!_bounds.intersects(clip)) {
-                _cal.add(Calendar.MONTH, _numCalCols);
-                y += _calendarHeight + CALENDAR_SPACING;
-                continue;
-            }
-
             for (int column = 0; column < _numCalCols; column++) {
-                String monthName = _monthsOfTheYear[_cal.get(Calendar.MONTH)];
-                monthName = monthName + " " + _cal.get(Calendar.YEAR);
-
-                _bounds.x = (_ltr ? x : x - _calendarWidth);// + 4; //4px of padding on the left
-                _bounds.y = y + _boxPaddingY;// + 4; //4px of padding on the top
-                _bounds.width = _calendarWidth;// - 8; //4px of padding on both sides
-                _bounds.height = _monthBoxHeight; //4px of padding on top
-
-                if (_bounds.intersects(clip)) {
-                    // Paint month name background.
-                    paintMonthStringBackground(g, _bounds.x, _bounds.y,
-                            _bounds.width, _bounds.height);
-
-                    // Paint arrow buttons for traversing months if enabled.
-                    if (_traversable) {
-                        tmpX = _bounds.x + _arrowPaddingX;
-                        tmpY = _bounds.y + (_bounds.height -
-                            _monthDownImage.getIconHeight()) / 2;
-                        g.drawImage(_monthDownImage.getImage(),
-                            tmpX, tmpY, null);
-
-                        tmpX = _bounds.x + _bounds.width - _arrowPaddingX -
-                                _monthUpImage.getIconWidth();
-                        g.drawImage(_monthUpImage.getImage(), tmpX, tmpY, null);
-                    }
-
-                    // Paint month name.
-                    Font oldFont = getFont();
-                    FontMetrics oldFM = fm;
-                    g.setFont(_derivedFont);
-                    fm = getFontMetrics(_derivedFont);
-                    
-                    g.setColor(_monthStringForeground);
-                    tmpX = _ltr ? 
-                            x + (_calendarWidth / 2) -
-                                (fm.stringWidth(monthName) / 2) :
-                            x - (_calendarWidth / 2) -
-                                (fm.stringWidth(monthName) / 2) - 1;
-                    tmpY = _bounds.y + ((_monthBoxHeight - _boxHeight) / 2) +
-                            fm.getAscent();
-
-                    if ((_dropShadowMask & MONTH_DROP_SHADOW) != 0) {
-                        g.setColor(shadowColor);
-                        g.drawString(monthName, tmpX + 1, tmpY + 1);
-                        g.setColor(_monthStringForeground);
-                    }
-                    g.drawString(monthName, tmpX, tmpY);
-                    g.setFont(oldFont);
-                    fm = oldFM;
-                }
-                g.setColor(getDaysOfTheWeekForeground());
+                MonthGrid grid = getGrid(monthStart);
 
                 _bounds.x = _ltr ? x : x - _calendarWidth;
-                _bounds.y = y + _boxPaddingY + _monthBoxHeight +
-                    _boxPaddingY + _boxPaddingY;
-                _bounds.width = _calendarWidth;
-                _bounds.height = _boxHeight;
-
-                if (_bounds.intersects(clip)) {
-                    _cal.set(Calendar.DAY_OF_MONTH,
-                            _cal.getActualMinimum(Calendar.DAY_OF_MONTH));
-
-                    // Paint short representation of day of the week.
-                    int dayIndex = _firstDayOfWeek - 1;
-                    Font oldFont = g.getFont();
-                    FontMetrics oldFM = fm;
-                    g.setFont(_derivedFont);
-                    fm = getFontMetrics(_derivedFont);
-
-                    for (int i = 0; i < DAYS_IN_WEEK; i++) {
-                        tmpX = _ltr ?
-                                x + (i * (_boxPaddingX + _boxWidth +
-                                    _boxPaddingX)) + _boxPaddingX +
-                                    (_boxWidth / 2) -
-                                    (fm.stringWidth(_daysOfTheWeek[dayIndex]) /
-                                    2) :
-                                x - (i * (_boxPaddingX + _boxWidth +
-                                    _boxPaddingX)) - _boxPaddingX -
-                                    (_boxWidth / 2) -
-                                    (fm.stringWidth(_daysOfTheWeek[dayIndex]) /
-                                    2);
-                        tmpY = _bounds.y + fm.getAscent();
-                        if ((_dropShadowMask & WEEK_DROP_SHADOW) != 0) {
-                            g.setColor(shadowColor);
-                            g.drawString(_daysOfTheWeek[dayIndex],
-                                    tmpX + 1, tmpY + 1);
-                            g.setColor(getDaysOfTheWeekForeground());
-                        }
-                        g.drawString(_daysOfTheWeek[dayIndex], tmpX, tmpY);
-                        dayIndex++;
-                        if (dayIndex == DAYS_IN_WEEK) {
-                            dayIndex = 0;
-                        }
-                    }
-                    g.setFont(oldFont);
-                    fm = oldFM;
-                }
-
-                // Check if the month to paint falls in the clip.
-                _bounds.x = _startX +
-                        (_ltr ?
-                            column * (_calendarWidth + CALENDAR_SPACING) :
-                            -(column * (_calendarWidth + CALENDAR_SPACING) +
-                                    _calendarWidth));
-                _bounds.y = _startY +
-                        row * (_calendarHeight + CALENDAR_SPACING);
+                _bounds.y = y;
                 _bounds.width = _calendarWidth;
                 _bounds.height = _calendarHeight;
 
-                // Paint the month if it intersects the clip.  If we don't move
-                // the calendar forward a month as it would have if paintMonth
-                // was called.
                 if (_bounds.intersects(clip)) {
-                    paintMonth(g, column, row);
-                } else {
-                    _cal.add(Calendar.MONTH, 1);
+                    int left = _bounds.x;
+                    g.drawImage(getGridImage(grid), left, y, null);
+                    paintMonth(g, grid, left, y, clip);
                 }
+                monthStart = grid.nextMonth;
 
                 x += _ltr ?
                         _calendarWidth + CALENDAR_SPACING :
@@ -1473,8 +1400,6 @@ public class JXMonthView extends JComponent {
             y += _calendarHeight + CALENDAR_SPACING;
         }
 
-        // Restore the calendar.
-        _cal.setTimeInMillis(_firstDisplayedDate);
         if (g2 != null && _antiAlias) {
             g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
                                 oldAAValue);
@@ -1482,100 +1407,276 @@ public class JXMonthView extends JComponent {
     }
 
     /**
-     * Paints a month.  It is assumed the calendar, _cal, is already set to the
-     * first day of the month to be painted.
+     * Paints the selected days and today of a month over its cached image.
      *
-     * @param col X (column) the calendar is displayed in.
-     * @param row Y (row) the calendar is displayed in.
      * @param g Graphics object.
+     * @param grid The month to paint.
+     * @param left x-coordinate of the month.
+     * @param top y-coordinate of the month.
+     * @param clip The clip bounds.
+     */
+    private void paintMonth(Graphics g, MonthGrid grid, int left, int top,
+            Rectangle clip) {
+        long first = grid.dayStarts[0];
+        long last = grid.dayStarts[grid.days - 1];
+        boolean hasSelection = _startSelectedDate != -1 &&
+                _startSelectedDate <= last && _endSelectedDate >= first;
+        boolean hasToday = _today >= first && _today <= last;
+        if (!hasSelection && !hasToday) {
+            return;
+        }
+
+        for (int i = 0; i < grid.days; i++) {
+            long day = grid.dayStarts[i];
+            boolean selected = hasSelection && isSelectedDate(day);
+            boolean today = hasToday && day == _today;
+            if (!selected && !today) {
+                continue;
+            }
+
+            int cell = grid.lead + i;
+            _bounds.x = left + getDayX(cell);
+            _bounds.y = top + getDayY(cell);
+            _bounds.width = _boxPaddingX + _boxWidth + _boxPaddingX;
+            _bounds.height = _boxPaddingY + _boxHeight + _boxPaddingY;
+            if (!_bounds.intersects(clip)) {
+                continue;
+            }
+
+            // Paint bounding box around any date that falls within the
+            // selection and the day over it.
+            if (selected) {
+                // Keep track of the rectangle for the currently
+                // selected date so we don't have to recalculate it
+                // later when it becomes unselected.  This is only
+                // useful for SINGLE_SELECTION mode.
+                if (_selectionMode == SINGLE_SELECTION) {
+                    _dirtyRect.x = _bounds.x;
+                    _dirtyRect.y = _bounds.y;
+                    _dirtyRect.width = _bounds.width;
+                    _dirtyRect.height = _bounds.height;
+                }
+
+                paintSelectedDayBackground(g, _bounds.x, _bounds.y,
+                        _bounds.width, _bounds.height);
+                paintDay(g, grid, i, _bounds.x, _bounds.y);
+            }
+
+            // Paint bounding box around today.
+            if (today) {
+                paintTodayBackground(g, _bounds.x, _bounds.y,
+                        _bounds.width, _bounds.height);
+            }
+        }
+        g.setColor(getForeground());
+    }
+
+    /**
+     * Returns the image with the static part of the month, rendering it if
+     * the grid is new or stale.
      */
-    private void paintMonth(Graphics g, int col, int row) {
-        String numericDay;
-        int days = _cal.getActualMaximum(Calendar.DAY_OF_MONTH);
-        FontMetrics fm = g.getFontMetrics();
-        Rectangle clip = g.getClipBounds();
+    private BufferedImage getGridImage(MonthGrid grid) {
+        if (grid.image == null || grid.imageGeneration != grid.generation) {
+            if (grid.image == null ||
+                    grid.image.getWidth() != _calendarWidth ||
+                    grid.image.getHeight() != _calendarHeight) {
+                GraphicsConfiguration gc = getGraphicsConfiguration();
+                grid.image = gc != null ?
+                        gc.createCompatibleImage(_calendarWidth,
+                            _calendarHeight, Transparency.TRANSLUCENT) :
+                        new BufferedImage(_calendarWidth, _calendarHeight,
+                            BufferedImage.TYPE_INT_ARGB);
+            }
+            Graphics2D g2 = grid.image.createGraphics();
+            try {
+                g2.setComposite(AlphaComposite.Clear);
+                g2.fillRect(0, 0, _calendarWidth, _calendarHeight);
+                g2.setComposite(AlphaComposite.SrcOver);
+                if (_antiAlias) {
+                    g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                            RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                }
+                renderMonth(g2, grid);
+            } finally {
+                g2.dispose();
+            }
+            grid.imageGeneration = grid.generation;
+        }
+        return grid.image;
+    }
 
-        long nextFlaggedDate = -1;
-        int flaggedDateIndex = 0;
-        if (_flaggedDates != null && _flaggedDates.length > 0) {
-            nextFlaggedDate = _flaggedDates[flaggedDateIndex];
+    /**
+     * Renders the month string, the days of the week and the days of a
+     * month, relative to the top left corner of the month.
+     *
+     * @param g Graphics object.
+     * @param grid The month to render.
+     */
+    private void renderMonth(Graphics g, MonthGrid grid) {
+        int tmpX, tmpY;
+        Color shadowColor = getForeground();
+        if (_dropShadowMask != 0 && shadowColor != null) {
+            shadowColor = new Color(shadowColor.getRed(),
+                    shadowColor.getGreen(), shadowColor.getBlue(),
+                    (int)(.20 * 255));
         }
 
-        for (int i = 0; i < days; i++) {
-            calculateBoundsForDay(_bounds);
+        // Paint month name background.
+        int monthY = _boxPaddingY;
+        paintMonthStringBackground(g, 0, monthY, _calendarWidth,
+                _monthBoxHeight);
 
-            if (_bounds.intersects(clip)) {
-                numericDay = _dayOfMonthFormatter.format(_cal.getTime());
-
-                // Paint bounding box around any date that falls within the
-                // selection.
-                if (isSelectedDate(_cal.getTimeInMillis())) {
-                    // Keep track of the rectangle for the currently
-                    // selected date so we don't have to recalculate it
-                    // later when it becomes unselected.  This is only
-                    // useful for SINGLE_SELECTION mode.
-                    if (_selectionMode == SINGLE_SELECTION) {
-                        _dirtyRect.x = _bounds.x;
-                        _dirtyRect.y = _bounds.y;
-                        _dirtyRect.width = _bounds.width;
-                        _dirtyRect.height = _bounds.height;
-                    }
+        // Paint arrow buttons for traversing months if enabled.
+        if (_traversable) {
+            tmpX = _arrowPaddingX;
+            tmpY = monthY + (_monthBoxHeight -
+                _monthDownImage.getIconHeight()) / 2;
+            g.drawImage(_monthDownImage.getImage(), tmpX, tmpY, null);
 
-                    paintSelectedDayBackground(g, _bounds.x, _bounds.y,
-                            _bounds.width, _bounds.height);
+            tmpX = _calendarWidth - _arrowPaddingX -
+                    _monthUpImage.getIconWidth();
+            g.drawImage(_monthUpImage.getImage(), tmpX, tmpY, null);
+        }
 
-                    g.setColor(getForeground());
-                }
+        // Paint month name.
+        String monthName = _monthsOfTheYear[grid.month] + " " + grid.year;
+        g.setFont(_derivedFont);
+        FontMetrics fm = getFontMetrics(_derivedFont);
+        g.setColor(_monthStringForeground);
+        tmpX = (_calendarWidth / 2) - (fm.stringWidth(monthName) / 2);
+        if (!_ltr) {
+            tmpX--;
+        }
+        tmpY = monthY + ((_monthBoxHeight - _boxHeight) / 2) + fm.getAscent();
+        if ((_dropShadowMask & MONTH_DROP_SHADOW) != 0) {
+            g.setColor(shadowColor);
+            g.drawString(monthName, tmpX + 1, tmpY + 1);
+            g.setColor(_monthStringForeground);
+        }
+        g.drawString(monthName, tmpX, tmpY);
+
+        // Paint short representation of day of the week.
+        g.setColor(getDaysOfTheWeekForeground());
+        int cellWidth = _boxPaddingX + _boxWidth + _boxPaddingX;
+        tmpY = _boxPaddingY + _monthBoxHeight + _boxPaddingY + _boxPaddingY +
+                fm.getAscent();
+        int dayIndex = _firstDayOfWeek - 1;
+        for (int i = 0; i < DAYS_IN_WEEK; i++) {
+            int width = fm.stringWidth(_daysOfTheWeek[dayIndex]);
+            tmpX = _ltr ?
+                    (i * cellWidth) + _boxPaddingX + (_boxWidth / 2) -
+                        (width / 2) :
+                    _calendarWidth - (i * cellWidth) - _boxPaddingX -
+                        (_boxWidth / 2) - (width / 2);
+            if ((_dropShadowMask & WEEK_DROP_SHADOW) != 0) {
+                g.setColor(shadowColor);
+                g.drawString(_daysOfTheWeek[dayIndex], tmpX + 1, tmpY + 1);
+                g.setColor(getDaysOfTheWeekForeground());
+            }
+            g.drawString(_daysOfTheWeek[dayIndex], tmpX, tmpY);
+            dayIndex++;
+            if (dayIndex == DAYS_IN_WEEK) {
+                dayIndex = 0;
+            }
+        }
 
-                // Paint bounding box around today.
-                if (_cal.getTimeInMillis() == _today) {
-                    paintTodayBackground(g, _bounds.x, _bounds.y,
-                            _bounds.width, _bounds.height);
+        // Paint numeric days of the month.
+        for (int i = 0; i < grid.days; i++) {
+            int cell = grid.lead + i;
+            paintDay(g, grid, i, getDayX(cell), getDayY(cell));
+        }
+    }
 
-                    g.setColor(getForeground());
-                }
+    /**
+     * Paints the numeric day of the month in the box at x/y, bold if
+     * the day is flagged.
+     */
+    private void paintDay(Graphics g, MonthGrid grid, int day, int x, int y) {
+        boolean flagged = _flaggedDaySet != null &&
+                _flaggedDaySet.contains(grid.dayStarts[day]);
+        int dayOfWeek = (grid.dayOfWeek - 1 + day) % DAYS_IN_WEEK + 1;
+        g.setColor(getDayForeground(dayOfWeek));
+        g.setFont(flagged ? _derivedFont : getFont());
+        int width = flagged ?
+                _flaggedDayLabelWidths[day] : _dayLabelWidths[day];
+        g.drawString(_dayLabels[day],
+                x + _boxPaddingX + _boxWidth - width - (_ltr ? 0 : 1),
+                y + _boxPaddingY +
+                    (flagged ? _flaggedDayLabelAscent : _dayLabelAscent));
+    }
 
-                // If the appointment date is less than the current
-                // calendar date increment to the next appointment.
-                while (nextFlaggedDate != -1 &&
-                        nextFlaggedDate < _cal.getTimeInMillis()) {
-                    flaggedDateIndex++;
-                    if (flaggedDateIndex < _flaggedDates.length) {
-                        nextFlaggedDate = _flaggedDates[flaggedDateIndex];
-                    } else {
-                        nextFlaggedDate = -1;
-                    }
-                }
+    /**
+     * Returns the x offset of a day box within its month.
+     *
+     * @param cell The index of the box, counting from the first day of the
+     * week of the first week of the month.
+     */
+    private int getDayX(int cell) {
+        int cellWidth = _boxPaddingX + _boxWidth + _boxPaddingX;
+        int column = cell % DAYS_IN_WEEK;
+        return _ltr ?
+                column * cellWidth :
+                _calendarWidth - (column + 1) * cellWidth;
+    }
 
-                // Paint numeric day of the month.
-                g.setColor(getDayForeground(_cal.get(Calendar.DAY_OF_WEEK)));
-                if (nextFlaggedDate != -1 &&
-                        _cal.getTimeInMillis() == nextFlaggedDate) {
-                    Font oldFont = getFont();
-                    FontMetrics oldFM = fm;
-                    g.setFont(_derivedFont);
-                    fm = getFontMetrics(_derivedFont);
-                    g.drawString(numericDay,
-                            _ltr ?
-                                _bounds.x + _boxPaddingX +
-                                _boxWidth - fm.stringWidth(numericDay):
-                                _bounds.x + _boxPaddingX +
-                                _boxWidth - fm.stringWidth(numericDay) - 1,
-                            _bounds.y + _boxPaddingY + fm.getAscent());
-                    g.setFont(oldFont);
-                    fm = oldFM;
-                } else {
-                    g.drawString(numericDay,
-                            _ltr ?
-                                _bounds.x + _boxPaddingX +
-                                _boxWidth - fm.stringWidth(numericDay):
-                                _bounds.x + _boxPaddingX +
-                                _boxWidth - fm.stringWidth(numericDay) - 1,
-                            _bounds.y + _boxPaddingY + fm.getAscent());
-                }
+    /**
+     * Returns the y offset of a day box within its month.
+     *
+     * @param cell The index of the box, counting from the first day of the
+     * week of the first week of the month.
+     */
+    private int getDayY(int cell) {
+        return _boxPaddingY + _monthBoxHeight + _boxPaddingY +
+                _boxPaddingY + _boxHeight + _boxPaddingY +
+                (cell / DAYS_IN_WEEK) *
+                    (_boxPaddingY + _boxHeight + _boxPaddingY);
+    }
+
+    /**
+     * Returns the grid for the month starting at <code>monthStart</code>,
+     * calculating it with the calendar if it is new or stale.  The calendar
+     * is left in an undefined state.
+     */
+    private MonthGrid getGrid(long monthStart) {
+        MonthGrid grid = _grids.get(monthStart);
+        if (grid == null) {
+            // Don't keep months around which have long been scrolled away.
+            if (_grids.size() > 2 * _numCalCols * _numCalRows) {
+                _grids.clear();
             }
+            grid = new MonthGrid();
+            _grids.put(monthStart, grid);
+        } else if (grid.generation == _gridGeneration) {
+            return grid;
+        }
+
+        _cal.setTimeInMillis(monthStart);
+        grid.month = _cal.get(Calendar.MONTH);
+        grid.year = _cal.get(Calendar.YEAR);
+        grid.days = _cal.getActualMaximum(Calendar.DAY_OF_MONTH);
+        grid.dayOfWeek = _cal.get(Calendar.DAY_OF_WEEK);
+        grid.lead = grid.dayOfWeek - _firstDayOfWeek;
+        if (grid.lead < 0) {
+            grid.lead += DAYS_IN_WEEK;
+        }
+        grid.dayStarts = new long[grid.days];
+        for (int i = 0; i < grid.days; i++) {
+            grid.dayStarts[i] = _cal.getTimeInMillis();
             _cal.add(Calendar.DAY_OF_MONTH, 1);
         }
+        grid.nextMonth = _cal.getTimeInMillis();
+        grid.generation = _gridGeneration;
+
+        // Restore the calendar.
+        _cal.setTimeInMillis(_firstDisplayedDate);
+        return grid;
+    }
+
+    /**
+     * Marks the layout and images of all months as stale.
+     */
+    private void invalidateGrids() {
+        _gridGeneration++;
     }
 
     /**
@@ -2263,4 +2364,68 @@ public class JXMonthView extends JComponent {
             _cal.setTimeInMillis(_firstDisplayedDate);
         }
     }
+
+    /**
+     * The layout of a displayed month, calculated once instead of walking
+     * the calendar through every day on each paint, and the image of its
+     * static part.
+     */
+    private static final class MonthGrid {
+        int month;
+        int year;
+        int days;
+        /** Calendar.DAY_OF_WEEK of the first day. */
+        int dayOfWeek;
+        /** Number of empty boxes before the first day. */
+        int lead;
+        /** Time of the start of each day. */
+        long[] dayStarts;
+        long nextMonth;
+        int generation;
+        BufferedImage image;
+        int imageGeneration;
+    }
+
+    /**
+     * Hash set of day times using open addressing on a long array, so that
+     * looking up flagged days while painting does not scan the dates.
+     */
+    private static final class DaySet {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private final long[] _table;
+        private final int _mask;
+
+        DaySet(long[] days) {
+            int capacity = 8;
+            while (capacity < days.length * 2) {
+                capacity <<= 1;
+            }
+            _table = new long[capacity];
+            java.util.Arrays.fill(_table, EMPTY);
+            _mask = capacity - 1;
+            for (long day : days) {
+                int i = index(day);
+                while (_table[i] != EMPTY && _table[i] != day) {
+                    i = (i + 1) & _mask;
+                }
+                _table[i] = day;
+            }
+        }
+
+        boolean contains(long day) {
+            int i = index(day);
+            while (_table[i] != EMPTY) {
+                if (_table[i] == day) {
+                    return true;
+                }
+                i = (i + 1) & _mask;
+            }
+            return false;
+        }
+
+        private int index(long day) {
+            int h = (int)(day ^ (day >>> 32)) * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & _mask;
+        }
+    }
 }
@@ -271,6 +271,19 @@ public abstract class ComponentAdapter {
         return columnIndex; // sensible default for JList and JTree
     }
 
+    /**
+     * For target components that support filtering or sorting of rows, this
+     * method transforms the specified row index from view coordinates to
+     * model coordinates. For all other types of target components, this
+     * method returns the row index unchanged.
+     *
+     * @param rowIndex index of a row in view coordinates
+     * @return index of the specified row in model coordinates
+     */
+    public int convertRowIndexToModel(int rowIndex) {
+        return rowIndex; // sensible default for unfiltered components
+    }
+
     public void refresh() {
         target.revalidate();
         target.repaint();
@@ -34,6 +34,13 @@ public abstract class ConditionalHighlighter extends Highlighter {
     protected int               highlightColumn = -1;   // always in model coordinates
     protected int               mask = 255;
 
+    /** the last seed passed into computeSelectedForeground and its derived color. */
+    private Color selectedForegroundSeed;
+    private Color derivedSelectedForeground;
+    /** the last color passed into maskColor and its masked version. */
+    private Color maskSeed;
+    private Color maskedColor;
+
     public ConditionalHighlighter() {
         // default constructor
     }
@@ -103,8 +110,7 @@ public abstract class ConditionalHighlighter extends Highlighter {
         Color color = adapter.isSelected() ? computeSelectedBackground(seed) : seed;
         // fix issue#21-swingx: foreground of renderers can be null
         if (color != null) {
-            renderer.setBackground(
-                               new Color((getMask() << 24) | (color.getRGB() & 0x00FFFFFF), true));
+            renderer.setBackground(maskColor(color));
         }
     }
 
@@ -113,10 +119,25 @@ public abstract class ConditionalHighlighter extends Highlighter {
         Color color = adapter.isSelected() ? computeSelectedForeground(seed) : seed;
         // fix issue#21-swingx: foreground of renderers can be null
         if (color != null) {
-            renderer.setForeground(
-                               new Color((getMask() << 24) | (color.getRGB() & 0x00FFFFFF), true));
-    
+            renderer.setForeground(maskColor(color));
+        }
+    }
+
+    /**
+     * Returns the given color with its alpha replaced by the current mask.
+     * The result for the last color is remembered, as consecutive cells
+     * usually share their colors.
+     *
+     * @param color the color to mask, must not be null
+     * @return the masked color
+     */
+    private Color maskColor(Color color) {
+        int rgb = (getMask() << 24) | (color.getRGB() & 0x00FFFFFF);
+        if (!color.equals(maskSeed) || maskedColor.getRGB() != rgb) {
+            maskedColor = new Color(rgb, true);
+            maskSeed = color;
         }
+        return maskedColor;
     }
 
     /**
@@ -142,8 +163,17 @@ public abstract class ConditionalHighlighter extends Highlighter {
     }
 
     protected Color computeSelectedForeground(Color seed) {
-        return getSelectedForeground() == null ? 
-                seed == null ? null : seed.brighter() : getSelectedForeground();
+        if (getSelectedForeground() != null) {
+            return getSelectedForeground();
+        }
+        if (seed == null) {
+            return null;
+        }
+        if (!seed.equals(selectedForegroundSeed)) {
+            derivedSelectedForeground = seed.brighter();
+            selectedForegroundSeed = seed;
+        }
+        return derivedSelectedForeground;
     }
 
     public int getTestColumnIndex() {
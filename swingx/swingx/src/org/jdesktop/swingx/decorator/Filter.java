@@ -21,6 +21,8 @@
 
 package org.jdesktop.swingx.decorator;
 
+import java.util.Arrays;
+
 /**
  * <p>A <b><code>Filter</code></b> is used to filter the data presented in a
  * data-aware component such as a {@link org.jdesktop.swingx.JXList} or a
@@ -38,6 +40,9 @@ public abstract class Filter {
     private /** final */ int column;		// in model coordinates
     protected FilterPipeline		pipeline = null;
     protected ComponentAdapter	adapter = null;	/** @todo make private */
+    /** maps this filter's rows to the rows of the previous filter. */
+    protected int[]             toPrevious = new int[0];
+    /** the inverse of toPrevious, -1 for rows filtered out. */
     protected int[]             fromPrevious = new int[0];
     // JW... magic number!
     int order = -1;	// package private
@@ -259,7 +264,28 @@ public abstract class Filter {
      * @param row
      * @return
      */
-    protected abstract int mapTowardModel(int row);
+    protected int mapTowardModel(int row) {
+        return toPrevious[row];
+    }
+
+    /**
+     * Sets the row mapping toward the model and builds the inverse 
+     * mapping. 
+     * 
+     * PRE: the entries are ascending or at least distinct, 
+     *    0 <= toPrevious[i] < getInputSize()
+     * 
+     * @param toPrevious the rows of the previous filter by row of this filter,
+     *   the array is not copied.
+     */
+    protected void setMapping(int[] toPrevious) {
+        this.toPrevious = toPrevious;
+        fromPrevious = new int[getInputSize()];
+        Arrays.fill(fromPrevious, -1);
+        for (int i = 0; i < toPrevious.length; i++) {
+            fromPrevious[toPrevious[i]] = i;
+        }
+    }
 
     /**
      * PRE: 0 <= row < getInputSize();
@@ -336,6 +362,11 @@ public abstract class Filter {
      * filter should be reset; false, if the existing row mappings should be preserved.
      */
     protected void refresh(boolean reset) {
+        // the pipeline might evaluate this together with the following filters
+        if (reset && (pipeline != null) && pipeline.contains(this)
+                && pipeline.refreshFused(this)) {
+            return;
+        }
         if (reset) {
             reset();
         }
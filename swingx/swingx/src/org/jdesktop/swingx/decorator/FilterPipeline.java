@@ -21,9 +21,16 @@
 
 package org.jdesktop.swingx.decorator;
 
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.event.EventListenerList;
 
@@ -53,6 +60,15 @@ import javax.swing.event.EventListenerList;
  * of the methods in this class are only for advanced developers who want to write
  * their own filter subclasses and want to override the way a filter pipeline works.
  *
+ * <p>With fusedFiltering enabled, consecutive {@link PatternFilter}s are 
+ * evaluated in one pass over their common input, each row is tested
+ * against the filters in order until the first one rejects it. The 
+ * resulting row mappings are the same as those of the sequential chain. 
+ * With parallelFiltering enabled additionally, large inputs are 
+ * evaluated in chunks on background threads while the calling thread waits.
+ * This requires that the model can be read concurrently, which is 
+ * not the case f.i. for models which load their data lazily.</p>
+ *
  * @author Ramesh Gupta
  * @see org.jdesktop.swingx.decorator.Filter
  */
@@ -61,6 +77,13 @@ public class FilterPipeline {
     private ComponentAdapter    adapter = null;
     private Sorter                  sorter = null;
     private final Filter[]          filters;
+    private boolean fusedFiltering;
+    private boolean parallelFiltering;
+
+    /** the minimum number of rows per chunk in parallel filtering. */
+    private static final int MIN_CHUNK_SIZE = 4096;
+    /** the shared threads for parallel filtering, lazily created. */
+    private static ExecutorService filterExecutor;
 
     /**
      * Creates an empty open pipeline.
@@ -139,6 +162,45 @@ public class FilterPipeline {
         return sorter;
     }
     
+    /**
+     * Sets whether consecutive PatternFilters are evaluated in one pass.
+     * 
+     * @param fused
+     */
+    public void setFusedFiltering(boolean fused) {
+        if (fusedFiltering == fused) return;
+        this.fusedFiltering = fused;
+        if (isAssigned()) {
+            flush();
+        }
+    }
+
+    public boolean isFusedFiltering() {
+        return fusedFiltering;
+    }
+
+    /**
+     * Sets whether fused filters are evaluated in parallel on large
+     * inputs. This implies fusedFiltering. The model must support 
+     * concurrent reads.
+     * 
+     * @param parallel
+     */
+    public void setParallelFiltering(boolean parallel) {
+        if (parallelFiltering == parallel) return;
+        this.parallelFiltering = parallel;
+        if (parallel) {
+            fusedFiltering = true;
+        }
+        if (isAssigned()) {
+            flush();
+        }
+    }
+
+    public boolean isParallelFiltering() {
+        return parallelFiltering;
+    }
+
     /**
      * Assigns a {@link org.jdesktop.swingx.decorator.ComponentAdapter} to this
      * pipeline if no adapter has previously been assigned to the pipeline. Once an
@@ -268,6 +330,140 @@ public class FilterPipeline {
     }
 
 
+    /**
+     * Refreshes the given filter together with the fusable filters 
+     * following it, in one pass over the input of the given filter. 
+     * Then cascades to the next filter as usual.
+     * 
+     * @param filter the filter to refresh
+     * @return false if the filter can't be fused and must be refreshed
+     *    by itself.
+     */
+    boolean refreshFused(Filter filter) {
+        if (!fusedFiltering || !isAssigned() || filter.equals(sorter)) return false;
+        List<PatternFilter> run = new ArrayList<PatternFilter>();
+        for (int i = filter.order; i < filters.length && isFusable(filters[i])
+                && run.size() < Byte.MAX_VALUE; i++) {
+            run.add((PatternFilter) filters[i]);
+        }
+        // nothing to gain from a single filter on a single thread
+        if (run.isEmpty() || (run.size() == 1 && !parallelFiltering)) return false;
+        PatternFilter first = run.get(0);
+        byte[] depths = evaluate(run, first.getInputSize());
+        // the number of rows by depth 
+        int[] counts = new int[run.size() + 1];
+        for (int row = 0; row < depths.length; row++) {
+            counts[depths[row]]++;
+        }
+        // each filter's input is its predecessor's output: build in order
+        int passed = depths.length;
+        for (int k = 0; k < run.size(); k++) {
+            passed -= counts[k];
+            int[] toPrevious = new int[passed];
+            int position = 0;
+            int current = 0;
+            for (int row = 0; row < depths.length; row++) {
+                if (depths[row] >= k) {
+                    if (depths[row] > k) {
+                        toPrevious[current++] = position;
+                    }
+                    position++;
+                }
+            }
+            run.get(k).setMapping(toPrevious);
+        }
+        filterChanged(run.get(run.size() - 1));
+        return true;
+    }
+
+    private boolean isFusable(Filter filter) {
+        return (filter instanceof PatternFilter) 
+            && ((PatternFilter) filter).isFusable();
+    }
+
+    /**
+     * Returns for each input row the number of consecutive filters
+     * of the run it passed, starting with the first. 
+     * 
+     * @param run the fused filters
+     * @param size the number of rows in the input of the first filter
+     * @return the depths per input row
+     */
+    private byte[] evaluate(List<PatternFilter> run, int size) {
+        final PatternFilter first = run.get(0);
+        final PatternFilter[] fused = run.toArray(new PatternFilter[run.size()]);
+        final int[] columns = new int[fused.length];
+        final boolean[] testable = new boolean[fused.length];
+        for (int k = 0; k < fused.length; k++) {
+            columns[k] = fused[k].getColumnIndex();
+            testable[k] = fused[k].isTestable();
+        }
+        final byte[] depths = new byte[size];
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (!parallelFiltering || threads < 2 || size < 2 * MIN_CHUNK_SIZE) {
+            evaluate(first, fused, columns, testable, depths, 0, size);
+            return depths;
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (4 * threads) + 1);
+        List<Future<Object>> chunks = new ArrayList<Future<Object>>();
+        for (int start = 0; start < size; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(size, start + chunkSize);
+            chunks.add(getFilterExecutor().submit(new Callable<Object>() {
+                public Object call() {
+                    evaluate(first, fused, columns, testable, depths, from, to);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                chunks.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // don't leave incomplete mappings
+            for (int i = 0; i < chunks.size(); i++) {
+                chunks.get(i).cancel(false);
+            }
+            evaluate(first, fused, columns, testable, depths, 0, size);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("filtering failed", cause);
+        }
+        return depths;
+    }
+
+    private static void evaluate(PatternFilter first, PatternFilter[] fused, 
+            int[] columns, boolean[] testable, byte[] depths, int from, int to) {
+        for (int row = from; row < to; row++) {
+            byte depth = 0;
+            while (depth < fused.length && testable[depth]
+                    && fused[depth].matches(first.getInputValue(row, columns[depth]))) {
+                depth++;
+            }
+            depths[row] = depth;
+        }
+    }
+
+    private static synchronized ExecutorService getFilterExecutor() {
+        if (filterExecutor == null) {
+            filterExecutor = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(), 
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "FilterPipeline");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return filterExecutor;
+    }
+
     /**
      * returns the unfiltered data adapter size or 0 if unassigned.
      * 
@@ -334,6 +530,51 @@ public class FilterPipeline {
         return (last == null) ? row : last.convertRowIndexToView(row);
     }
 
+    /**
+     * Converts the given row indices from view to model coordinates, 
+     * same as calling convertRowIndexToModel for each, but walking the 
+     * filters' row mappings once per filter. 
+     * 
+     * @param rows row indices in view coordinates
+     * @return a new array with the row indices in model coordinates
+     */
+    public int[] convertRowIndicesToModel(int[] rows) {
+        int[] result = (int[]) rows.clone();
+        if (!isAssigned()) return result;
+        Filter filter = last();
+        while (filter != null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = filter.mapTowardModel(result[i]);
+            }
+            filter = previous(filter);
+        }
+        return result;
+    }
+
+    /**
+     * Converts the given row indices from model to view coordinates, 
+     * same as calling convertRowIndexToView for each, but walking the 
+     * filters' row mappings once per filter. 
+     * 
+     * @param rows row indices in model coordinates
+     * @return a new array with the row indices in view coordinates, -1
+     *   for rows not visible in the view
+     */
+    public int[] convertRowIndicesToView(int[] rows) {
+        int[] result = (int[]) rows.clone();
+        if (!isAssigned()) return result;
+        Filter filter = first();
+        while (filter != null) {
+            for (int i = 0; i < result.length; i++) {
+                if (result[i] >= 0) {
+                    result[i] = filter.mapTowardView(result[i]);
+                }
+            }
+            filter = next(filter);
+        }
+        return result;
+    }
+
     /**
      * Returns the value of the cell at the specified coordinates.
      *
@@ -136,6 +136,10 @@ public class Highlighter {
     private Color selectedBackground = null;
     private Color selectedForeground = null;
 
+    /** the last seed passed into computeSelectedBackground and its derived color. */
+    private Color selectedBackgroundSeed;
+    private Color derivedSelectedBackground;
+
     /**
      * Default constructor.
      * Initializes background, foreground, selectedBackground, and
@@ -312,8 +316,19 @@ public class Highlighter {
      * @return the background color for a selected cell
      */
     protected Color computeSelectedBackground(Color seed) {
-        return selectedBackground == null ?
-            seed == null ? Color.gray : seed.darker() : selectedBackground;
+        if (selectedBackground != null) {
+            return selectedBackground;
+        }
+        if (seed == null) {
+            return Color.gray;
+        }
+        // the seed is the same for most cells, so don't create a new
+        // darker color for each of them
+        if (!seed.equals(selectedBackgroundSeed)) {
+            derivedSelectedBackground = seed.darker();
+            selectedBackgroundSeed = seed;
+        }
+        return derivedSelectedBackground;
     }
 
     /**
@@ -21,7 +21,7 @@
 
 package org.jdesktop.swingx.decorator;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 /**
@@ -30,7 +30,6 @@ import java.util.regex.Pattern;
  * @author Ramesh Gupta
  */
 public class PatternFilter extends Filter implements PatternMatcher {
-    private ArrayList<Integer>	toPrevious;
     protected Pattern	pattern = null;
 
     public PatternFilter() {
@@ -43,7 +42,6 @@ public class PatternFilter extends Filter implements PatternMatcher {
     }
 
     protected void init() {
-		toPrevious = new ArrayList<Integer>();
     }
 
     public void setPattern(String regularExpr, int matchFlags) {
@@ -82,25 +80,27 @@ public class PatternFilter extends Filter implements PatternMatcher {
      * Resets the internal row mappings from this filter to the previous filter.
      */
     protected void reset() {
-        toPrevious.clear();
+        toPrevious = new int[0];
         int inputSize = getInputSize();
         fromPrevious = new int[inputSize];  // fromPrevious is inherited protected
-        for (int i = 0; i < inputSize; i++) {
-            fromPrevious[i] = -1;
-        }
+        Arrays.fill(fromPrevious, -1);
     }
 
     protected void filter() {
         if (pattern != null) {
             int inputSize = getInputSize();
+            int[] passed = new int[inputSize];
             int current = 0;
             for (int i = 0; i < inputSize; i++) {
                 if (test(i)) {
-                    toPrevious.add(new Integer(i));
+                    passed[current] = i;
                     // generate inverse map entry while we are here
                     fromPrevious[i] = current++;
                 }
             }
+            // keep 4 bytes per passing row only
+            toPrevious = new int[current];
+            System.arraycopy(passed, 0, toPrevious, 0, current);
         }
     }
 
@@ -124,20 +124,47 @@ public class PatternFilter extends Filter implements PatternMatcher {
 
         Object	value = getInputValue(row, getColumnIndex());
 
+        return matches(value);
+    }
+
+    /**
+     * Returns true if the given cell value passes this filter. Must not depend
+     * on any state other than the pattern, the FilterPipeline might call it
+     * concurrently from several threads, see isFusable.
+     * 
+     * @param value the value of a cell in this filter's column
+     * @return true if the value matches the pattern.
+     */
+    protected boolean matches(Object value) {
         if (value == null) {
             return false;
         }
-        else {
-            boolean matches = pattern.matcher(value.toString()).find();
-            return matches;
-        }
+        return pattern.matcher(value.toString()).find();
     }
 
-    public int getSize() {
-        return toPrevious.size();
+    /**
+     * Returns true if this filter is a plain predicate on the cell values 
+     * of its column, as defined by matches(Object). Such filters may 
+     * be evaluated by the FilterPipeline in one pass with their neighbours, 
+     * bypassing test(int). 
+     * 
+     * Subclasses which override test(int) must return false.
+     * 
+     * @return true if the pipeline may fuse this filter with its neighbours.
+     */
+    protected boolean isFusable() {
+        return getClass() == PatternFilter.class;
     }
 
-    protected int mapTowardModel(int row) {
-        return toPrevious.get(row);
+    /**
+     * @return false if no row can pass this filter, as in test(int).
+     */
+    boolean isTestable() {
+        return (pattern != null) && adapter.isTestable(getColumnIndex());
+    }
+
+
+    public int getSize() {
+        return toPrevious.length;
     }
 }
@@ -36,6 +36,11 @@ public class PatternHighlighter extends ConditionalHighlighter implements
 
     protected Pattern pattern = null;
 
+    /** the last String tested against lastPattern, and the test's result. */
+    private String lastValue;
+    private Pattern lastPattern;
+    private boolean lastMatches;
+
     /**
      * Constructs a <code>PatternHighlighter</code> instance with no
      * background or foreground color and no pattern
@@ -142,12 +147,32 @@ public class PatternHighlighter extends ConditionalHighlighter implements
             return false;
         Object value = adapter.getFilteredValueAt(adapter.row, testColumn);
 
-        if (value == null) {
+        return matches(value);
+    }
+
+    /**
+     * Returns true if the string representation of the value contains a
+     * match of the current pattern. Row-wide highlighters test the same value
+     * once for every column of a row, so the result for the last
+     * <code>String</code> value is remembered.
+     * 
+     * @param value the value to test, may be null
+     * @return true if value is not null and matches the pattern
+     */
+    protected boolean matches(Object value) {
+        if ((value == null) || (pattern == null)) {
             return false;
-        } else {
-            boolean matches = pattern.matcher(value.toString()).find();
-            return matches;
         }
+        if ((value == lastValue) && (pattern == lastPattern)) {
+            return lastMatches;
+        }
+        boolean matches = pattern.matcher(value.toString()).find();
+        if (value instanceof String) {
+            lastValue = (String) value;
+            lastPattern = pattern;
+            lastMatches = matches;
+        }
+        return matches;
     }
 
     /**
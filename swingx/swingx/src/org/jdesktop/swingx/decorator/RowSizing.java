@@ -20,16 +20,30 @@
  */
 package org.jdesktop.swingx.decorator;
 
+import java.util.Arrays;
+
 import javax.swing.SizeSequence;
 
 /**
+ * Keeps individual row heights in model coordinates and maps them to the 
+ * view on pipeline changes. <p>
+ * 
+ * Only rows with a height different from the default height are stored,
+ * sorted by model index. The view SizeSequence is rebuilt in one bulk 
+ * operation. 
+ * 
  * @author Jeanette Winzenburg
  */
 public class RowSizing {
 
     private SizeSequence viewSizes;
 
-    private SizeSequence modelSizes;
+    /** the model rows with a non-default height, ascending. */
+    private int[] modelRows = new int[0];
+    /** the heights of the modelRows. */
+    private int[] modelHeights = new int[0];
+    /** the number of valid entries in modelRows/modelHeights. */
+    private int modelCount;
 
     private FilterPipeline pipeline;
 
@@ -84,56 +98,120 @@ public class RowSizing {
 
 
     public void clearModelSizes() {
-        modelSizes = null;
+        setModelSizes(new int[0], new int[0], 0);
     }
 
     public void insertIndexInterval(int start, int length, int value) {
-        if (modelSizes == null) return;
-        modelSizes.insertEntries(start, length, value);
+        int first = findModelIndex(start);
+        // shift the following rows
+        for (int i = first; i < modelCount; i++) {
+            modelRows[i] += length;
+        }
+        if (value == defaultHeight) return;
+        int[] rows = new int[modelCount + length];
+        int[] heights = new int[modelCount + length];
+        System.arraycopy(modelRows, 0, rows, 0, first);
+        System.arraycopy(modelHeights, 0, heights, 0, first);
+        for (int i = 0; i < length; i++) {
+            rows[first + i] = start + i;
+            heights[first + i] = value;
+        }
+        System.arraycopy(modelRows, first, rows, first + length, modelCount - first);
+        System.arraycopy(modelHeights, first, heights, first + length, modelCount - first);
+        setModelSizes(rows, heights, modelCount + length);
     }
 
     public void removeIndexInterval(int start, int length) {
-        if (modelSizes == null) return;
-        modelSizes.removeEntries(start, length);
+        int first = findModelIndex(start);
+        int last = findModelIndex(start + length);
+        int removed = last - first;
+        System.arraycopy(modelRows, last, modelRows, first, modelCount - last);
+        System.arraycopy(modelHeights, last, modelHeights, first, modelCount - last);
+        modelCount -= removed;
+        for (int i = first; i < modelCount; i++) {
+            modelRows[i] -= length;
+        }
     }
 
     public void restoreSelection() {
         if (viewSizes == null) return;
-        viewSizes.setSizes(new int[0]);
-        viewSizes.insertEntries(0, getOutputSize(), defaultHeight);
-
-        int[] selected = modelSizes.getSizes();
-        for (int i = 0; i < selected.length; i++) {
-          int index = convertToView(i);
-          // index might be -1, but then addSelectionInterval ignores it. 
-          viewSizes.setSize(index, selected[i]);
+        int[] sizes = new int[getOutputSize()];
+        Arrays.fill(sizes, defaultHeight);
+        int[] rows = new int[modelCount];
+        System.arraycopy(modelRows, 0, rows, 0, modelCount);
+        int[] viewRows = convertToView(rows);
+        for (int i = 0; i < viewRows.length; i++) {
+            // index might be -1 if filtered
+            if ((viewRows[i] >= 0) && (viewRows[i] < sizes.length)) {
+                sizes[viewRows[i]] = modelHeights[i];
+            }
         }
+        viewSizes.setSizes(sizes);
     }
 
     private void mapTowardsModel() {
         if (viewSizes == null) return;
-        modelSizes = new SizeSequence(getInputSize(), defaultHeight);
-        int[] selected = viewSizes.getSizes(); 
-        for (int i = 0; i < selected.length; i++) {
-            int modelIndex = convertToModel(i);
-            modelSizes.setSize(modelIndex, selected[i]); 
+        int[] sizes = viewSizes.getSizes(); 
+        int count = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] != defaultHeight) count++;
+        }
+        int[] viewRows = new int[count];
+        int[] heights = new int[count];
+        count = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] != defaultHeight) {
+                viewRows[count] = i;
+                heights[count++] = sizes[i];
+            }
         }
+        int[] rows = convertToModel(viewRows);
+        // sort by model row, carrying along the heights
+        long[] entries = new long[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = ((long) rows[i] << 32) | (heights[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(entries);
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) (entries[i] >> 32);
+            heights[i] = (int) entries[i];
+        }
+        setModelSizes(rows, heights, count);
+    }
+
+    private void setModelSizes(int[] rows, int[] heights, int count) {
+        modelRows = rows;
+        modelHeights = heights;
+        modelCount = count;
     }
 
-    private int getInputSize() {
-        return pipeline != null ? pipeline.getInputSize() : 0;
+    /**
+     * @return the position of the first stored model row >= row.
+     */
+    private int findModelIndex(int row) {
+        int low = 0;
+        int high = modelCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (modelRows[middle] < row) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
     }
 
     private int getOutputSize() {
         return pipeline != null ? pipeline.getOutputSize() : 0;
     }
 
-    private int convertToModel(int index) {
-        return pipeline != null ? pipeline.convertRowIndexToModel(index) : index;
+    private int[] convertToModel(int[] indices) {
+        return pipeline != null ? pipeline.convertRowIndicesToModel(indices) : indices;
     }
     
-    private int convertToView(int index) {
-        return pipeline != null ? pipeline.convertRowIndexToView(index) : index;
+    private int[] convertToView(int[] indices) {
+        return pipeline != null ? pipeline.convertRowIndicesToView(indices) : indices;
     }
     
 
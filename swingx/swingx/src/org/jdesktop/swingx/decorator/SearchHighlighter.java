@@ -21,10 +21,21 @@
 package org.jdesktop.swingx.decorator;
 
 import java.awt.Color;
+import java.util.BitSet;
 import java.util.regex.Pattern;
 
+import javax.swing.SwingUtilities;
+
 /**
  * Convenience Highlighter to test and highlight cells in searching.
+ * 
+ * If a match adapter is set, the highlighter keeps a bitset of all matching
+ * cells in model coordinates for the current pattern. The cells are tested
+ * once and highlighting, match counting and the per cell match tests of
+ * searching ({@link #isMatch(int, int)}) are answered from the bitset. For big models the bitset is filled in slices on the
+ * EDT, rows not yet scanned are tested directly. The owner of the adapter
+ * is responsible to report model changes by 
+ * {@link #updateMatches(int, int)} or {@link #invalidateMatches()}.
  *  
  * @author Jeanette Winzenburg
  */
@@ -33,6 +44,20 @@ public class SearchHighlighter extends PatternHighlighter {
     int highlightRow;
     private boolean enableHighlight;
     private static final String ALL = ".*";
+    /** number of cells which are scanned in one go. */
+    private static final int SCAN_SLICE = 50000;
+
+    /** the source of model values for the match cache, null if disabled. */
+    private ComponentAdapter matchAdapter;
+    /** the matching cells, index is modelRow * matchColumnCount + modelColumn. */
+    private BitSet matches;
+    /** the pattern the matches were computed for. */
+    private Pattern matchPattern;
+    private int matchRowCount;
+    private int matchColumnCount;
+    /** the rows [0, scannedRows) are up to date in matches. */
+    private int scannedRows;
+    private boolean scanScheduled;
     
     /**
      * Instantiates a default SearchHighlighter. 
@@ -93,14 +118,231 @@ public class SearchHighlighter extends PatternHighlighter {
         if (columnToTest < 0) {
             columnToTest = adapter.viewToModel(adapter.column);
         }
+        if (isMatchCacheEnabled()) {
+            int modelRow = adapter.convertRowIndexToModel(adapter.row);
+            if (ensureMatches() && isScanned(modelRow) 
+                    && (columnToTest < matchColumnCount)) {
+                return matches.get(modelRow * matchColumnCount + columnToTest);
+            }
+        }
         Object  value = adapter.getFilteredValueAt(adapter.row, columnToTest);
-        if (value == null) {
+        return matches(value);
+    }
+
+    /**
+     * Sets the pattern and drops cached matches if it differs from the
+     * pattern they were computed for.
+     * 
+     * {@inheritDoc}
+     */
+    public void setPattern(Pattern pattern) {
+        if (!isEqualPattern(pattern, matchPattern)) {
+            clearMatches();
+        }
+        super.setPattern(pattern);
+    }
+
+//------------------------- match cache
+    
+    /**
+     * Sets the adapter used to access model values for caching matches.
+     * The adapter's row and column counts and its 
+     * {@link ComponentAdapter#getValueAt(int, int)} are used in model
+     * coordinates. A null adapter disables the match cache.
+     * 
+     * @param adapter the adapter to compute the matches from, may be null
+     */
+    public void setMatchAdapter(ComponentAdapter adapter) {
+        this.matchAdapter = adapter;
+        clearMatches();
+    }
+    
+    /**
+     * 
+     * @return the adapter used for caching matches or null if caching
+     *   is disabled
+     */
+    public ComponentAdapter getMatchAdapter() {
+        return matchAdapter;
+    }
+    
+    /**
+     * Returns true if the match cache is enabled and holds the matches
+     * of a pattern equal to the given.
+     * 
+     * @param pattern the pattern to check
+     * @return true if matches are cached for the pattern
+     */
+    public boolean isMatchCacheFor(Pattern pattern) {
+        return isMatchCacheEnabled() && (pattern != null) 
+            && isEqualPattern(pattern, getPattern());
+    }
+    
+    /**
+     * Returns the number of matching cells in model coordinates. Doesn't
+     * wait for the scan of a big model, the count is unknown until the 
+     * last slice is done.
+     * 
+     * @return the number of matching cells or -1 if the match cache 
+     *   is disabled or the scan is not yet complete.
+     */
+    public int getMatchCount() {
+        if (!isMatchCacheEnabled()) return -1;
+        if (!ensureMatches()) return 0;
+        if (scannedRows < matchRowCount) return -1;
+        return matches.cardinality();
+    }
+    
+    /**
+     * Returns true if the match state of the given model row is known,
+     * that is the match cache is enabled and the row is already scanned.
+     * Callers must match directly if not.
+     * 
+     * @param modelRow the row in model coordinates
+     * @return true if isMatch can answer for cells in the row
+     */
+    public boolean isMatchKnown(int modelRow) {
+        return isMatchCacheEnabled() && ensureMatches() && isScanned(modelRow);
+    }
+    
+    /**
+     * Returns true if the cell at the given model coordinates matches the 
+     * current pattern. Doesn't scan, see {@link #isMatchKnown(int)}.
+     * 
+     * @param modelRow the row in model coordinates
+     * @param modelColumn the column in model coordinates
+     * @return true if the cell is matching, false if not, if the row is
+     *   not yet scanned or if the match cache is disabled
+     */
+    public boolean isMatch(int modelRow, int modelColumn) {
+        if (!isMatchKnown(modelRow) || !isValidCell(modelRow, modelColumn)) {
             return false;
         }
-        else {
-            boolean matches = pattern.matcher(value.toString()).find();
-            return matches;
+        return matches.get(modelRow * matchColumnCount + modelColumn);
+    }
+    
+    /**
+     * Rescans the given range of model rows. To be called if the values 
+     * of existing rows changed, structural changes must be reported by 
+     * {@link #invalidateMatches()}.
+     * 
+     * @param firstModelRow the first changed row in model coordinates
+     * @param lastModelRow the last changed row in model coordinates
+     */
+    public void updateMatches(int firstModelRow, int lastModelRow) {
+        if (matches == null) return;
+        int last = Math.min(lastModelRow, Math.min(scannedRows, matchRowCount) - 1);
+        for (int row = Math.max(0, firstModelRow); row <= last; row++) {
+            scanRow(row);
         }
+        fireStateChanged();
+    }
+    
+    /**
+     * Drops all cached matches, they are recomputed on next access.
+     *
+     */
+    public void invalidateMatches() {
+        if (matches == null) return;
+        clearMatches();
+        fireStateChanged();
+    }
+    
+    private boolean isMatchCacheEnabled() {
+        return matchAdapter != null && isEnabled();
+    }
+
+    /**
+     * Makes sure the bitset is created for the current pattern. Starts
+     * scanning in slices if the model is big.
+     * 
+     * @return false if there is nothing to match against
+     */
+    private boolean ensureMatches() {
+        if (pattern == null) return false;
+        if ((matches != null) && !isEqualPattern(pattern, matchPattern)) {
+            clearMatches();
+        }
+        if (matches == null) {
+            matchPattern = pattern;
+            matchRowCount = matchAdapter.getRowCount();
+            matchColumnCount = matchAdapter.getColumnCount();
+            matches = new BitSet(matchRowCount * matchColumnCount);
+            scannedRows = 0;
+            int sliceRows = getSliceRows();
+            if (sliceRows >= matchRowCount) {
+                scanRows(matchRowCount);
+            } else {
+                scheduleScan();
+            }
+        }
+        return matchColumnCount > 0;
+    }
+
+    private int getSliceRows() {
+        return Math.max(1, SCAN_SLICE / Math.max(1, matchColumnCount));
+    }
+    
+    /**
+     * scans the next slice of rows and reschedules itself until all 
+     * rows are done. Repaints when done.
+     *
+     */
+    private void scheduleScan() {
+        if (scanScheduled) return;
+        scanScheduled = true;
+        final BitSet scanning = matches;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                scanScheduled = false;
+                // the cache was dropped in the meantime
+                if (scanning != matches) return;
+                scanRows(scannedRows + getSliceRows());
+                if (scannedRows < matchRowCount) {
+                    scheduleScan();
+                } else {
+                    fireStateChanged();
+                }
+            }
+        });
+    }
+    
+    private void scanRows(int endRow) {
+        endRow = Math.min(endRow, matchRowCount);
+        for (; scannedRows < endRow; scannedRows++) {
+            scanRow(scannedRows);
+        }
+    }
+    
+    private void scanRow(int row) {
+        int offset = row * matchColumnCount;
+        for (int column = 0; column < matchColumnCount; column++) {
+            Object value = matchAdapter.getValueAt(row, column);
+            matches.set(offset + column, 
+                    value != null && matchPattern.matcher(value.toString()).find());
+        }
+    }
+    
+    private boolean isScanned(int modelRow) {
+        return modelRow >= 0 && modelRow < scannedRows;
+    }
+    
+    private boolean isValidCell(int modelRow, int modelColumn) {
+        return modelRow >= 0 && modelRow < matchRowCount 
+            && modelColumn >= 0 && modelColumn < matchColumnCount;
+    }
+    
+    private void clearMatches() {
+        matches = null;
+        matchPattern = null;
+        scannedRows = 0;
+    }
+    
+    private boolean isEqualPattern(Pattern first, Pattern second) {
+        if (first == second) return true;
+        if (first == null || second == null) return false;
+        return first.pattern().equals(second.pattern()) 
+            && first.flags() == second.flags();
     }
 
     /** set the row to match in test. 
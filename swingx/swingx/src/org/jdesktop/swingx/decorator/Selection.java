@@ -20,6 +20,8 @@
  */
 package org.jdesktop.swingx.decorator;
 
+import java.util.Arrays;
+
 import javax.swing.DefaultListSelectionModel;
 import javax.swing.ListSelectionModel;
 import javax.swing.event.ListSelectionEvent;
@@ -31,6 +33,10 @@ import javax.swing.event.ListSelectionListener;
  * updates view selection on pipeline change.
  * updates model selection on view selection change.
  * 
+ * The selected indices are mapped in bulk and applied as intervals of 
+ * adjacent indices, so f.i. a complete selection costs a single
+ * addSelectionInterval however the rows are sorted.
+ * 
  * @author Jeanette Winzenburg
  */
 public class Selection {
@@ -100,12 +106,9 @@ public class Selection {
         // JW - hmm... clearSelection doesn't reset the lead/anchor. Why not?
         viewSelection.clearSelection();
 
-        int[] selected = getSelectedRows(modelSelection);
-        for (int i = 0; i < selected.length; i++) {
-          int index = convertToView(selected[i]);
-          // index might be -1, but then addSelectionInterval ignores it. 
-          viewSelection.addSelectionInterval(index, index);
-        }
+        int[] selected = convertToView(getSelectedRows(modelSelection));
+        // indices might be -1, addIntervals skips them
+        addIntervals(viewSelection, selected);
         int lead = modelSelection.getLeadSelectionIndex();
         // PENDING: JW - this is a quick hack for spurious AIOB - need to enquire why 
         // they happen in the first place
@@ -154,10 +157,7 @@ public class Selection {
     private void mapTowardsModel() {
         modelSelection.clearSelection();
         int[] selected = getSelectedRows(viewSelection); 
-        for (int i = 0; i < selected.length; i++) {
-            int modelIndex = convertToModel(selected[i]);
-            modelSelection.addSelectionInterval(modelIndex, modelIndex); 
-        }
+        addIntervals(modelSelection, convertToModel(selected));
         if (selected.length > 0) {
             // convert lead selection index to model coordinates
             modelSelection.moveLeadSelectionIndex(convertToModel(viewSelection.getLeadSelectionIndex()));
@@ -173,16 +173,78 @@ public class Selection {
         // JW: check for valid index? must be < pipeline.getInputSize()
         return (pipeline != null) && pipeline.isAssigned() ? pipeline.convertRowIndexToView(index) : index;
     }
+
+    private int[] convertToModel(int[] indices) {
+        return (pipeline != null) ? pipeline.convertRowIndicesToModel(indices) : indices;
+    }
+    
+    private int[] convertToView(int[] indices) {
+        return (pipeline != null) ? pipeline.convertRowIndicesToView(indices) : indices;
+    }
     
     protected void updateFromViewSelectionChanged(int firstIndex, int lastIndex) {
-        for (int i = firstIndex; i <= lastIndex; i++) {
-            int modelIndex = convertToModel(i);
-            if (viewSelection.isSelectedIndex(i)) {
-                modelSelection.addSelectionInterval(modelIndex, modelIndex);
+        if ((firstIndex < 0) || (lastIndex < firstIndex)) return;
+        int[] indices = new int[lastIndex - firstIndex + 1];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = firstIndex + i;
+        }
+        int[] modelIndices = convertToModel(indices);
+        int[] selected = new int[indices.length];
+        int[] unselected = new int[indices.length];
+        int selectedCount = 0;
+        int unselectedCount = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (viewSelection.isSelectedIndex(indices[i])) {
+                selected[selectedCount++] = modelIndices[i];
             } else {
-                modelSelection.removeSelectionInterval(modelIndex, modelIndex);
+                unselected[unselectedCount++] = modelIndices[i];
             }
         }
+        removeIntervals(modelSelection, unselected, unselectedCount);
+        addIntervals(modelSelection, selected, selectedCount);
+        // keep the lead in sync, as did the former per-index updates
+        int lead = viewSelection.getLeadSelectionIndex();
+        if ((lead >= firstIndex) && (lead <= lastIndex) && (modelIndices[lead - firstIndex] >= 0)) {
+            modelSelection.moveLeadSelectionIndex(modelIndices[lead - firstIndex]);
+        }
+    }
+
+    private void addIntervals(ListSelectionModel selection, int[] indices) {
+        addIntervals(selection, indices, indices.length);
+    }
+
+    /**
+     * Adds the first count indices to the selection, one interval per
+     * run of adjacent indices. Negative indices are ignored. 
+     * The array is sorted in place.
+     */
+    private void addIntervals(ListSelectionModel selection, int[] indices, int count) {
+        Arrays.sort(indices, 0, count);
+        int start = 0;
+        while ((start < count) && (indices[start] < 0)) start++;
+        while (start < count) {
+            int end = start;
+            while ((end + 1 < count) && (indices[end + 1] <= indices[end] + 1)) end++;
+            selection.addSelectionInterval(indices[start], indices[end]);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Removes the first count indices from the selection, one interval per
+     * run of adjacent indices. Negative indices are ignored. 
+     * The array is sorted in place.
+     */
+    private void removeIntervals(ListSelectionModel selection, int[] indices, int count) {
+        Arrays.sort(indices, 0, count);
+        int start = 0;
+        while ((start < count) && (indices[start] < 0)) start++;
+        while (start < count) {
+            int end = start;
+            while ((end + 1 < count) && (indices[end + 1] <= indices[end] + 1)) end++;
+            selection.removeSelectionInterval(indices[start], indices[end]);
+            start = end + 1;
+        }
     }
 
     protected void updateFromPipelineChanged() {
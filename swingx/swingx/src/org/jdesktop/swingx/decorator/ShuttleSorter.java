@@ -27,7 +27,6 @@ package org.jdesktop.swingx.decorator;
  * @author Ramesh Gupta
  */
 public class ShuttleSorter extends Sorter {
-    private int[]	toPrevious;
 
     public ShuttleSorter() {
         this(0, true);
@@ -38,7 +37,6 @@ public class ShuttleSorter extends Sorter {
     }
 
     protected void init() {
-        toPrevious = new int[0];
     }
 
     /**
@@ -48,10 +46,8 @@ public class ShuttleSorter extends Sorter {
      */
     protected void adopt(Sorter oldSorter) {
         if (oldSorter != null) {
-            toPrevious = ((ShuttleSorter) oldSorter).toPrevious.clone();
-            /** @todo shouldn't cast */
-            fromPrevious = ((ShuttleSorter) oldSorter).fromPrevious.clone();
-            /** @todo shouldn't cast */
+            toPrevious = oldSorter.toPrevious.clone();
+            fromPrevious = oldSorter.fromPrevious.clone();
         }
     }
 
@@ -72,7 +68,12 @@ public class ShuttleSorter extends Sorter {
      * Performs the sort.
      */
     protected void filter() {
-        sort(toPrevious.clone(), toPrevious, 0, toPrevious.length);
+        prepareCompare();
+        try {
+            sort(toPrevious.clone(), toPrevious, 0, toPrevious.length);
+        } finally {
+            releaseCompare();
+        }
         // Generate inverse map for implementing convertRowIndexToView();
         for (int i = 0; i < toPrevious.length; i++) {
             fromPrevious[toPrevious[i]] = i;
@@ -83,10 +84,6 @@ public class ShuttleSorter extends Sorter {
         return toPrevious.length;
     }
 
-    protected int mapTowardModel(int row) {
-        return toPrevious[row];
-    }
-
 // Adapted from Phil Milne's TableSorter implementation.
 // This implementation, however, is not coupled to TableModel in any way,
 // and may be used with list models and other types of models easily.
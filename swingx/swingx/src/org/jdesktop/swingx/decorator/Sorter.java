@@ -21,12 +21,26 @@
 
 package org.jdesktop.swingx.decorator;
 
+import java.text.CollationKey;
 import java.text.Collator;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 /**
  * Pluggable sorting filter.
+ * 
+ * Besides the primary column, a sorter can have secondary sort keys which
+ * decide the order of rows with equal values in the preceding keys. This
+ * is cheaper than chaining sorters for each column.
+ * 
+ * Subclasses which compare many rows in a row should bracket the 
+ * comparisons with {@link #prepareCompare()} and {@link #releaseCompare()}:
+ * the values of the sort keys are fetched once and the way to compare them 
+ * is resolved once per key from the values' class. 
  *
  * @author Ramesh Gupta
  */
@@ -36,6 +50,10 @@ public abstract class Sorter extends Filter {
     private Collator  collator;   // RG: compute this once
     private Locale currentLocale;
     private Comparator comparator;
+    /** the secondary sort keys, in order of precedence. */
+    private List<SortKey> secondaryKeys = new ArrayList<SortKey>();
+    /** the snapshot of all sort keys between prepare/releaseCompare. */
+    private SortColumn[] sortColumns;
 
     public Sorter() {
         this(0, true);
@@ -141,18 +159,179 @@ public abstract class Sorter extends Filter {
         }
     }
 
+    /**
+     * Adds a secondary sort key, comparing the values with the internal
+     * compare.
+     * 
+     * @param column the column index in model coordinates
+     * @param ascending the sort order of the key
+     */
+    public void addSecondaryKey(int column, boolean ascending) {
+        addSecondaryKey(column, ascending, null);
+    }
+
+    /**
+     * Adds a secondary sort key. Rows with equal values in the primary
+     * and all previously added keys are ordered by this key.
+     * 
+     * @param column the column index in model coordinates
+     * @param ascending the sort order of the key
+     * @param comparator the comparator to use for the key's values,
+     *   null for the internal compare
+     */
+    public void addSecondaryKey(int column, boolean ascending, 
+            Comparator comparator) {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException(
+                    "Negative column index for secondary key: " + column);
+        }
+        secondaryKeys.add(new SortKey(column, ascending, comparator));
+        refresh();
+    }
+
+    /**
+     * Removes all secondary sort keys.
+     */
+    public void clearSecondaryKeys() {
+        if (secondaryKeys.isEmpty()) return;
+        secondaryKeys.clear();
+        refresh();
+    }
+
+    public int getSecondaryKeyCount() {
+        return secondaryKeys.size();
+    }
+
     public int compare(int row1, int row2) {
-        int result = compare(row1, row2, getColumnIndex());
-        return ascending ? result : -result;
+        if (sortColumns != null) {
+            for (int i = 0; i < sortColumns.length; i++) {
+                int result = sortColumns[i].compare(row1, row2);
+                if (result != 0) return result;
+            }
+            return 0;
+        }
+        int result = compare(row1, row2, getColumnIndex(), comparator);
+        result = ascending ? result : -result;
+        for (int i = 0; (result == 0) && (i < secondaryKeys.size()); i++) {
+            SortKey key = secondaryKeys.get(i);
+            result = compare(row1, row2, key.column, key.comparator);
+            result = key.ascending ? result : -result;
+        }
+        return result;
+    }
+
+    /**
+     * Fetches the values of all sort keys and resolves how to compare
+     * them. Until releaseCompare, compare(int, int) uses the snapshot
+     * instead of querying the input.
+     * 
+     */
+    protected void prepareCompare() {
+        refreshCollator();
+        int size = getInputSize();
+        SortColumn[] columns = new SortColumn[secondaryKeys.size() + 1];
+        columns[0] = createSortColumn(getColumnIndex(), ascending, 
+                comparator, size);
+        for (int i = 0; i < secondaryKeys.size(); i++) {
+            SortKey key = secondaryKeys.get(i);
+            columns[i + 1] = createSortColumn(key.column, key.ascending, 
+                    key.comparator, size);
+        }
+        sortColumns = columns;
+    }
+
+    /**
+     * Releases the snapshot taken by prepareCompare.
+     */
+    protected void releaseCompare() {
+        sortColumns = null;
+    }
+
+    /**
+     * Snapshots the column's values, resolving the comparison from the 
+     * class of the values: if all are of the same class, Numbers of 
+     * the primitive wrapper types and Dates are compared as primitives, 
+     * Strings by their CollationKeys and other Comparables directly. 
+     * Otherwise the internal compare is used.
+     */
+    private SortColumn createSortColumn(int column, boolean ascending, 
+            Comparator comparator, int size) {
+        Object[] values = new Object[size];
+        Class type = null;
+        boolean mixed = false;
+        for (int row = 0; row < size; row++) {
+            Object value = getInputValue(row, column);
+            values[row] = value;
+            if (value == null) continue;
+            if (type == null) {
+                type = value.getClass();
+            } else if (type != value.getClass()) {
+                mixed = true;
+            }
+        }
+        if ((comparator != null) || mixed || (type == null)) {
+            return new ObjectColumn(values, ascending, comparator);
+        }
+        if ((type == Integer.class) || (type == Long.class) 
+                || (type == Short.class) || (type == Byte.class)) {
+            long[] longs = new long[size];
+            for (int row = 0; row < size; row++) {
+                if (values[row] != null) {
+                    longs[row] = ((Number) values[row]).longValue();
+                }
+            }
+            return new LongColumn(longs, nulls(values), ascending);
+        }
+        if (type == Date.class) {
+            long[] longs = new long[size];
+            for (int row = 0; row < size; row++) {
+                if (values[row] != null) {
+                    longs[row] = ((Date) values[row]).getTime();
+                }
+            }
+            return new LongColumn(longs, nulls(values), ascending);
+        }
+        if ((type == Double.class) || (type == Float.class)) {
+            double[] doubles = new double[size];
+            for (int row = 0; row < size; row++) {
+                if (values[row] != null) {
+                    doubles[row] = ((Number) values[row]).doubleValue();
+                }
+            }
+            return new DoubleColumn(doubles, nulls(values), ascending);
+        }
+        if ((type == String.class) || !Comparable.class.isAssignableFrom(type)) {
+            // the internal compare collates Strings and the String 
+            // representation of not Comparable values
+            for (int row = 0; row < size; row++) {
+                if (values[row] != null) {
+                    values[row] = collator.getCollationKey(values[row].toString());
+                }
+            }
+        }
+        return new ObjectColumn(values, ascending, null);
+    }
+
+    private static BitSet nulls(Object[] values) {
+        BitSet nulls = new BitSet(values.length);
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] == null) {
+                nulls.set(row);
+            }
+        }
+        return nulls;
     }
 
     /* Adapted from Phil Milne's TableSorter implementation.
         This implementation, however, is not coupled to TableModel in any way,
         and may be used with list models and other types of models easily. */
 
-    private int compare(int row1, int row2, int col) {
-        Object o1 = getInputValue(row1, col);
-        Object o2 = getInputValue(row2, col);
+    private int compare(int row1, int row2, int col, Comparator comparator) {
+        return compareValues(getInputValue(row1, col), 
+                getInputValue(row2, col), comparator);
+    }
+
+    private int compareValues(Object o1, Object o2, Comparator comparator) {
         // If both values are null return 0
         if (o1 == null && o2 == null) {
             return 0;
@@ -183,6 +362,104 @@ public abstract class Sorter extends Filter {
         return collator.compare(o1.toString(), o2.toString());
     }
 
+    private static class SortKey {
+        final int column;
+        final boolean ascending;
+        final Comparator comparator;
+
+        SortKey(int column, boolean ascending, Comparator comparator) {
+            this.column = column;
+            this.ascending = ascending;
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * The snapshot of one sort key's values, compared by input row index.
+     */
+    private abstract static class SortColumn {
+        protected final boolean ascending;
+
+        SortColumn(boolean ascending) {
+            this.ascending = ascending;
+        }
+
+        abstract int compare(int row1, int row2);
+    }
+
+    private abstract static class PrimitiveColumn extends SortColumn {
+        private final BitSet nulls;
+
+        PrimitiveColumn(BitSet nulls, boolean ascending) {
+            super(ascending);
+            this.nulls = nulls;
+        }
+
+        int compare(int row1, int row2) {
+            boolean null1 = nulls.get(row1);
+            boolean null2 = nulls.get(row2);
+            int result;
+            if (null1 || null2) {
+                result = null1 == null2 ? 0 : (null1 ? -1 : 1);
+            } else {
+                result = compareNonNull(row1, row2);
+            }
+            return ascending ? result : -result;
+        }
+
+        abstract int compareNonNull(int row1, int row2);
+    }
+
+    private static class LongColumn extends PrimitiveColumn {
+        private final long[] values;
+
+        LongColumn(long[] values, BitSet nulls, boolean ascending) {
+            super(nulls, ascending);
+            this.values = values;
+        }
+
+        int compareNonNull(int row1, int row2) {
+            long v1 = values[row1];
+            long v2 = values[row2];
+            return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+        }
+    }
+
+    private static class DoubleColumn extends PrimitiveColumn {
+        private final double[] values;
+
+        DoubleColumn(double[] values, BitSet nulls, boolean ascending) {
+            super(nulls, ascending);
+            this.values = values;
+        }
+
+        int compareNonNull(int row1, int row2) {
+            return Double.compare(values[row1], values[row2]);
+        }
+    }
+
+    /**
+     * Compares the values with the given comparator or, if null, with
+     * the internal compare. The values of a column with Strings or with
+     * values which are not Comparable are CollationKeys at this point,
+     * so the internal compare uses their natural order.
+     */
+    private class ObjectColumn extends SortColumn {
+        private final Object[] values;
+        private final Comparator comparator;
+
+        ObjectColumn(Object[] values, boolean ascending, Comparator comparator) {
+            super(ascending);
+            this.values = values;
+            this.comparator = comparator;
+        }
+
+        int compare(int row1, int row2) {
+            int result = compareValues(values[row1], values[row2], comparator);
+            return ascending ? result : -result;
+        }
+    }
+
     public boolean isAscending() {
         return ascending;
     }
@@ -26,6 +26,8 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JComponent;
 import javax.swing.UIManager;
@@ -65,6 +67,13 @@ public class LookAndFeelAddons {
   private static List<ComponentAddon> contributedComponents =
     new ArrayList<ComponentAddon>();
 
+  /**
+   * The createUI methods resolved by {@link #getUI(JComponent, Class)},
+   * keyed by UI class ID. Cleared when the addon changes.
+   */
+  private static Map<String, UIFactory> uiFactories =
+    new ConcurrentHashMap<String, UIFactory>();
+
   /**
    * Key used to ensure the current UIManager has been populated by the
    * LookAndFeelAddons.
@@ -156,6 +165,7 @@ public class LookAndFeelAddons {
     addon.initialize();
     currentAddon = addon;    
     UIManager.put(APPCONTEXT_INITIALIZED, Boolean.TRUE);
+    uiFactories.clear();
   }
 
   public static LookAndFeelAddons getAddon() {
@@ -226,6 +236,7 @@ public class LookAndFeelAddons {
    */
   public static void contribute(ComponentAddon component) {
     contributedComponents.add(component);
+    uiFactories.clear();
 
     if (currentAddon != null) {
       // make sure to initialize any addons added after the
@@ -241,6 +252,7 @@ public class LookAndFeelAddons {
    */
   public static void uncontribute(ComponentAddon component) {
     contributedComponents.remove(component);
+    uiFactories.clear();
     
     if (currentAddon != null) {
       component.uninitialize(currentAddon);
@@ -258,10 +270,19 @@ public class LookAndFeelAddons {
   public static ComponentUI getUI(JComponent component, Class expectedUIClass) {
     maybeInitialize();
 
+    // once resolved, go straight to the createUI method as long as the
+    // UIManager still maps the UI class ID to the same UI class
+    String uiClassID = component.getUIClassID();
+    String uiClassname = (String)UIManager.get(uiClassID);
+    UIFactory factory = uiFactories.get(uiClassID);
+    if (factory != null && factory.matches(uiClassname, expectedUIClass)) {
+      return factory.createUI(component);
+    }
+
     // solve issue with ClassLoader not able to find classes
-    String uiClassname = (String)UIManager.get(component.getUIClassID());
+    Class uiClass = null;
     try {
-      Class uiClass = Class.forName(uiClassname);
+      uiClass = Class.forName(uiClassname);
       UIManager.put(uiClassname, uiClass);
     } catch (ClassNotFoundException e) {
       // we ignore the ClassNotFoundException
@@ -270,6 +291,14 @@ public class LookAndFeelAddons {
     ComponentUI ui = UIManager.getUI(component);
     
     if (expectedUIClass.isInstance(ui)) {
+      if (uiClass != null && uiClass == ui.getClass()) {
+        try {
+          cacheFactory(uiClassID, uiClassname, expectedUIClass, uiClass
+            .getMethod("createUI", new Class[]{JComponent.class}));
+        } catch (NoSuchMethodException e) {
+          // UIManager found it, can't happen
+        }
+      }
       return ui;
     } else {
       String realUI = ui.getClass().getName();
@@ -286,6 +315,7 @@ public class LookAndFeelAddons {
       } catch (NoSuchMethodException e1) {
         throw new RuntimeException("Class " + realUI + " has no method createUI(JComponent)");
       }
+      cacheFactory(uiClassID, uiClassname, expectedUIClass, createUIMethod);
       try {
         return (ComponentUI)createUIMethod.invoke(null, new Object[]{component});
       } catch (Exception e2) {
@@ -293,6 +323,45 @@ public class LookAndFeelAddons {
       }
     }
   }
+
+  private static void cacheFactory(String uiClassID, String uiClassname,
+    Class expectedUIClass, Method createUIMethod) {
+    if (uiClassID != null && uiClassname != null) {
+      uiFactories.put(uiClassID, new UIFactory(uiClassname, expectedUIClass,
+        createUIMethod));
+    }
+  }
+
+  /**
+   * A resolved createUI method and what it has been resolved for.
+   */
+  private static class UIFactory {
+    private final String uiClassname;
+    private final Class expectedUIClass;
+    private final Method createUIMethod;
+
+    UIFactory(String uiClassname, Class expectedUIClass, Method createUIMethod) {
+      this.uiClassname = uiClassname;
+      this.expectedUIClass = expectedUIClass;
+      this.createUIMethod = createUIMethod;
+    }
+
+    boolean matches(String uiClassname, Class expectedUIClass) {
+      return this.expectedUIClass == expectedUIClass
+        && this.uiClassname.equals(uiClassname);
+    }
+
+    ComponentUI createUI(JComponent component) {
+      try {
+        return (ComponentUI)createUIMethod.invoke(null,
+          new Object[]{component});
+      } catch (Exception e) {
+        throw new RuntimeException("Failed to invoke "
+          + createUIMethod.getDeclaringClass().getName()
+          + "#createUI(JComponent)", e);
+      }
+    }
+  }
   
   /**
    * With applets, if you reload the current applet, the UIManager will be
@@ -22,6 +22,10 @@
 package org.jdesktop.swingx.treetable;
 
 import java.util.EventListener;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.event.EventListenerList;
 import javax.swing.event.TreeModelEvent;
@@ -29,12 +33,27 @@ import javax.swing.event.TreeModelListener;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 
+import org.jdesktop.swingx.util.SwingWorker;
+
 // There is no javax.swing.tree.AbstractTreeModel; There ought to be one.
 
 /**
  * AbstractTreeTableModel provides an implementation of
  * {@link org.jdesktop.swingx.treetable.TreeTableModel} as a convenient starting
  * point in defining custom data models for {@link org.jdesktop.swingx.JXTreeTable}.
+ * <p>
+ * Nodes with expensive or big child sets can be loaded lazily: subclasses
+ * return true from {@link #isLoadedLazily(Object)} for such nodes and
+ * override {@link #loadChildren(Object)} unless the nodes are 
+ * <code>TreeNode</code>s. Until
+ * {@link #ensureChildrenLoaded(TreePath)} has completed, a lazy node reports
+ * the single child {@link #LOADING_NODE}. The children are loaded on a
+ * background thread and replace the placeholder by a
+ * <code>treeStructureChanged</code> notification. If loading fails, the 
+ * node stays unloaded and {@link LazyLoadListener}s are notified. 
+ * Subclasses which override
+ * <code>getChild</code>, <code>getChildCount</code> or
+ * <code>getIndexOfChild</code> must delegate to super for lazy nodes.
  *
  * @author Ramesh Gupta
  */
@@ -55,6 +74,36 @@ public abstract class AbstractTreeTableModel implements TreeTableModel {
      */
     protected EventListenerList listenerList = new EventListenerList();
 
+    /**
+     * Placeholder child of lazily loaded nodes whose children are not yet 
+     * available.
+     */
+    public final static Object LOADING_NODE = new Object() {
+        public String toString() {
+            return "Loading...";
+        }
+    };
+
+    /** the children of lazy nodes which have been loaded. */
+    private Map<Object, Object[]> lazyChildren = new HashMap<Object, Object[]>();
+    /** the lazy nodes whose children are currently loaded. */
+    private Set<Object> loadingNodes = new HashSet<Object>();
+
+    /**
+     * Notified if loading the children of a lazily loaded node failed.
+     */
+    public static interface LazyLoadListener extends EventListener {
+        /**
+         * Called on the EDT after {@link AbstractTreeTableModel#loadChildren(Object)}
+         * threw. The node is left unloaded, so a later call to 
+         * ensureChildrenLoaded retries.
+         * 
+         * @param path the path to the node
+         * @param error the exception thrown by loadChildren
+         */
+        void loadFailed(TreePath path, Throwable error);
+    }
+
     /**
      * Constructs an <code>AbstractTreeTableModel</code> with a null root node
      */
@@ -106,6 +155,16 @@ public abstract class AbstractTreeTableModel implements TreeTableModel {
      * specified parent node is not a <code>TreeNode</code>.
      */
     public Object getChild(Object parent, int index) {
+        if (parent == LOADING_NODE) {
+            return null;
+        }
+        if (isLoadedLazily(parent)) {
+            Object[] children = lazyChildren.get(parent);
+            if (children == null) {
+                return index == 0 ? LOADING_NODE : null;
+            }
+            return children[index];
+        }
         // meant to be overridden
         try {
             return ((TreeNode) parent).getChildAt(index);
@@ -122,6 +181,13 @@ public abstract class AbstractTreeTableModel implements TreeTableModel {
      * @return the number of children in the specified parent node
      */
     public int getChildCount(Object parent) {
+        if (parent == LOADING_NODE) {
+            return 0;
+        }
+        if (isLoadedLazily(parent)) {
+            Object[] children = lazyChildren.get(parent);
+            return children == null ? 1 : children.length;
+        }
         // meant to be overridden
         try {
             return ((TreeNode) parent).getChildCount();
@@ -151,6 +217,14 @@ public abstract class AbstractTreeTableModel implements TreeTableModel {
         if (parent == null || child == null)
             return -1;
 
+        if (isLoadedLazily(parent)) {
+            for (int i = 0; i < getChildCount(parent); i++) {
+                if (child.equals(getChild(parent, i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         try {
             return ((TreeNode) parent).getIndex((TreeNode) child);
         }
@@ -182,6 +256,12 @@ public abstract class AbstractTreeTableModel implements TreeTableModel {
      * @return true if the specified node is a leaf node; false otherwise
      */
     public boolean isLeaf(Object node) {
+        if (node == LOADING_NODE) {
+            return true;
+        }
+        if (isLoadedLazily(node)) {
+            return getChildCount(node) == 0;
+        }
         try {
             return ((TreeNode) node).isLeaf();
         }
@@ -190,6 +270,119 @@ public abstract class AbstractTreeTableModel implements TreeTableModel {
         }
     }
 
+    /**
+     * Returns true if the children of the specified node are loaded in the
+     * background by {@link #loadChildren(Object)}. This implementation 
+     * returns false for all nodes.
+     *
+     * @param node node to test
+     * @return true if the node's children are loaded lazily
+     */
+    protected boolean isLoadedLazily(Object node) {
+        return false;
+    }
+
+    /**
+     * Loads the children of a node for which {@link #isLoadedLazily(Object)}
+     * returns true. Called on a background thread, so implementations must
+     * not access Swing components. This implementation returns the children
+     * of a <code>TreeNode</code> and no children for other nodes.
+     *
+     * @param node the node to load the children for
+     * @return the children of the node, must not be null
+     */
+    protected Object[] loadChildren(Object node) {
+        if (!(node instanceof TreeNode)) {
+            return new Object[0];
+        }
+        TreeNode treeNode = (TreeNode) node;
+        Object[] children = new Object[treeNode.getChildCount()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = treeNode.getChildAt(i);
+        }
+        return children;
+    }
+
+    /**
+     * Returns true if the children of the specified node are available, that
+     * is if the node isn't loaded lazily or its children have been loaded.
+     *
+     * @param node node to test
+     * @return true if the children of the node are available
+     */
+    public boolean isChildrenLoaded(Object node) {
+        return !isLoadedLazily(node) || lazyChildren.containsKey(node);
+    }
+
+    /**
+     * Starts loading the children of the last node of the specified path in
+     * the background if it is loaded lazily and not yet loaded. Once loaded,
+     * the children replace the {@link #LOADING_NODE} placeholder and a
+     * <code>treeStructureChanged</code> is fired for the path. Must be
+     * called on the EDT.
+     *
+     * @param path path to the node whose children are needed
+     */
+    public void ensureChildrenLoaded(final TreePath path) {
+        final Object node = path.getLastPathComponent();
+        if (isChildrenLoaded(node) || !loadingNodes.add(node)) {
+            return;
+        }
+        SwingWorker worker = new SwingWorker() {
+            public Object construct() {
+                try {
+                    return loadChildren(node);
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }
+
+            public void finished() {
+                loadingNodes.remove(node);
+                Object result = get();
+                if (result instanceof RuntimeException) {
+                    // keep the placeholder, the next expansion retries
+                    fireLoadFailed(path, (RuntimeException) result);
+                    return;
+                }
+                lazyChildren.put(node, (Object[]) result);
+                fireTreeStructureChanged(AbstractTreeTableModel.this,
+                        path.getPath(), null, null);
+            }
+        };
+        worker.start();
+    }
+
+    public void addLazyLoadListener(LazyLoadListener l) {
+        listenerList.add(LazyLoadListener.class, l);
+    }
+
+    public void removeLazyLoadListener(LazyLoadListener l) {
+        listenerList.remove(LazyLoadListener.class, l);
+    }
+
+    protected void fireLoadFailed(TreePath path, Throwable error) {
+        Object[] listeners = listenerList.getListenerList();
+        for (int i = listeners.length - 2; i >= 0; i -= 2) {
+            if (listeners[i] == LazyLoadListener.class) {
+                ((LazyLoadListener) listeners[i + 1]).loadFailed(path, error);
+            }
+        }
+    }
+
+    /**
+     * Discards the loaded children of a lazily loaded node. The children are
+     * loaded again on the next call to {@link #ensureChildrenLoaded(TreePath)}.
+     * Fires a <code>treeStructureChanged</code> for the path.
+     *
+     * @param path path to the node whose children are discarded
+     */
+    public void unloadChildren(TreePath path) {
+        if (lazyChildren.remove(path.getLastPathComponent()) != null) {
+            fireTreeStructureChanged(this, path.getPath(), null, null);
+        }
+    }
+
     /**
      * Called when value for the item identified by path has been changed.
      * If newValue signifies a truly new value the model should
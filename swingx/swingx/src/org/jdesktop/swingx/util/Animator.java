@@ -0,0 +1,175 @@
+/*
+ * $Id$
+ *
+ * Copyright 2005 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.util;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.Timer;
+
+/**
+ * <p>
+ * Drives a time based animation on the event dispatch thread. On each
+ * tick of a Swing Timer the {@link Target} is told the elapsed fraction
+ * of the duration, measured with <code>System.nanoTime</code>. So the
+ * animation takes the same time however many ticks are delivered,
+ * a slow machine just shows fewer frames.
+ * </p>
+ * <p>
+ * Ticks which should have happened according to the resolution but
+ * didn't are counted as dropped frames.
+ * </p>
+ */
+public class Animator {
+
+    /**
+     * The animated object.
+     */
+    public static interface Target {
+        /**
+         * Called on start, before the first timingEvent.
+         */
+        void begin();
+
+        /**
+         * @param fraction the elapsed fraction of the duration,
+         *    between 0 and 1 inclusive.
+         */
+        void timingEvent(float fraction);
+
+        /**
+         * Called after the last timingEvent, which had a fraction of 1.
+         */
+        void end();
+    }
+
+    private final int duration;
+    private final int resolution;
+    private final Target target;
+    private final Timer timer;
+    private long startNanos;
+    private int frameCount;
+    private int droppedFrameCount;
+    private boolean running;
+
+    /**
+     * @param duration the duration of the animation in milliseconds
+     * @param resolution the time between frames in milliseconds
+     * @param target the animated object
+     */
+    public Animator(int duration, int resolution, Target target) {
+        if (target == null) {
+            throw new IllegalArgumentException("target must not be null");
+        }
+        this.duration = Math.max(1, duration);
+        this.resolution = Math.max(1, resolution);
+        this.target = target;
+        timer = new Timer(this.resolution, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                tick();
+            }
+        });
+        timer.setInitialDelay(0);
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Starts the animation from the beginning. Cancels a running animation.
+     */
+    public void start() {
+        cancel();
+        frameCount = 0;
+        droppedFrameCount = 0;
+        running = true;
+        target.begin();
+        startNanos = System.nanoTime();
+        timer.start();
+    }
+
+    /**
+     * Jumps to the end of a running animation.
+     */
+    public void stop() {
+        if (!running) return;
+        finish();
+    }
+
+    /**
+     * Stops a running animation where it is, without calling end
+     * on the target.
+     */
+    public void cancel() {
+        timer.stop();
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @return the number of frames delivered by the current or last animation.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return the number of frames the current or last animation should
+     *   have delivered at its resolution, but didn't.
+     */
+    public int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    private void tick() {
+        if (!running) return;
+        long elapsed = (System.nanoTime() - startNanos) / 1000000;
+        if (elapsed >= duration) {
+            finish();
+            return;
+        }
+        frame(elapsed);
+        target.timingEvent((float) elapsed / duration);
+    }
+
+    private void finish() {
+        timer.stop();
+        frame(duration);
+        running = false;
+        target.timingEvent(1f);
+        target.end();
+    }
+
+    private void frame(long elapsed) {
+        frameCount++;
+        int expected = (int) (elapsed / resolution) + 1;
+        droppedFrameCount = Math.max(droppedFrameCount, expected - frameCount);
+    }
+}